@@ -0,0 +1,161 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.score.director.ScoreDirectorFactoryConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.impl.score.constraint.ConstraintMatchPolicy;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import ai.timefold.solver.core.impl.solver.DefaultSolverFactory;
+import com.schoolplanner.timetable.domain.*;
+import com.schoolplanner.timetable.service.CsvDataLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Rezultāta pārrēķina caurlaidība pēc viena change/swap gājiena - visam TimeTableConstraintProvider
+// (constraint=all) vai katram ierobežojumam atsevišķi. Gājieni netiek atsaukti: tā ir nejauša pastaiga
+// pa pilnībā piešķirtu sarakstu, tāpēc mērījumos nav meklēšanas trokšņa.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoreCalculationBenchmark {
+
+    // Tās pašas problēmas, ko izmanto BenchmarkRunner
+    @Param({"all_classes", "grades_678_limited", "grade_9_limited"})
+    public String dataset;
+
+    @Param({"all",
+            "teacherConflict", "roomConflict", "studentGroupConflict", "roomTypeMatch", "qualifiedUnitMatch",
+            "teacherAvailability", "dailyLessonCountLimit",
+            "subjectMustBeConsecutive", "studentLunchBreak", "schoolClassLessonRoomStability",
+            "teacherRoomStability", "studentGaps", "teacherGaps", "lessLessonsBefore", "balancedLessonsPerDay"})
+    public String constraint;
+
+    private InnerScoreDirector<TimeTable, HardSoftScore> scoreDirector;
+    private Lesson[] lessons;
+    private ClassUnitAssignment[] assignments;
+    private List<TimeSlot> timeSlots;
+    private List<Room> rooms;
+    private List<Teacher> teachers;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TimeTable problem = loadDataset(dataset);
+        random = new Random(0);
+        lessons = problem.getLessons().toArray(new Lesson[0]);
+        assignments = problem.getClassUnitAssignments().toArray(new ClassUnitAssignment[0]);
+        timeSlots = problem.getTimeSlots();
+        rooms = problem.getRooms();
+        teachers = problem.getTeachers();
+        // Nepiešķirtas stundas ierobežojumi neredz, tāpēc sākam no pilna (nejauša) saraksta
+        for (Lesson lesson : lessons) {
+            lesson.setTimeSlot(pick(timeSlots));
+            lesson.setRoom(pick(rooms));
+        }
+        for (ClassUnitAssignment assignment : assignments) {
+            assignment.assignTeacher(pick(teachers));
+        }
+
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+        if (!constraint.equals("all")) {
+            solverConfig.setScoreDirectorFactoryConfig(new ScoreDirectorFactoryConfig()
+                    .withConstraintProviderClass(SingleConstraintProvider.class)
+                    .withConstraintProviderCustomProperties(Map.of("constraint", constraint)));
+        }
+        DefaultSolverFactory<TimeTable> solverFactory = (DefaultSolverFactory<TimeTable>) SolverFactory.<TimeTable>create(solverConfig);
+        scoreDirector = solverFactory.<HardSoftScore>getScoreDirectorFactory().buildScoreDirector(false, ConstraintMatchPolicy.DISABLED);
+        scoreDirector.setWorkingSolution(problem);
+        scoreDirector.calculateScore();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scoreDirector.close();
+    }
+
+    @Benchmark
+    public HardSoftScore changeMove() {
+        Lesson lesson = lessons[random.nextInt(lessons.length)];
+        switch (random.nextInt(3)) {
+            case 0 -> {
+                scoreDirector.beforeVariableChanged(lesson, "timeSlot");
+                lesson.setTimeSlot(pick(timeSlots));
+                scoreDirector.afterVariableChanged(lesson, "timeSlot");
+            }
+            case 1 -> {
+                scoreDirector.beforeVariableChanged(lesson, "room");
+                lesson.setRoom(pick(rooms));
+                scoreDirector.afterVariableChanged(lesson, "room");
+            }
+            default -> {
+                // Skolotājs mainās visām (klase, mācību vienība) pāra stundām
+                ClassUnitAssignment assignment = lesson.getAssignment();
+                scoreDirector.beforeVariableChanged(assignment, "teacher");
+                assignment.setTeacher(pick(teachers));
+                scoreDirector.afterVariableChanged(assignment, "teacher");
+            }
+        }
+        scoreDirector.triggerVariableListeners();
+        return scoreDirector.calculateScore();
+    }
+
+    // Tāpat kā swapMoveSelector: abām stundām apmaina laiku un telpu, to pāriem - skolotāju
+    @Benchmark
+    public HardSoftScore swapMove() {
+        Lesson left = lessons[random.nextInt(lessons.length)];
+        Lesson right = lessons[random.nextInt(lessons.length)];
+
+        scoreDirector.beforeVariableChanged(left, "timeSlot");
+        scoreDirector.beforeVariableChanged(right, "timeSlot");
+        TimeSlot timeSlot = left.getTimeSlot();
+        left.setTimeSlot(right.getTimeSlot());
+        right.setTimeSlot(timeSlot);
+        scoreDirector.afterVariableChanged(left, "timeSlot");
+        scoreDirector.afterVariableChanged(right, "timeSlot");
+
+        scoreDirector.beforeVariableChanged(left, "room");
+        scoreDirector.beforeVariableChanged(right, "room");
+        Room room = left.getRoom();
+        left.setRoom(right.getRoom());
+        right.setRoom(room);
+        scoreDirector.afterVariableChanged(left, "room");
+        scoreDirector.afterVariableChanged(right, "room");
+
+        ClassUnitAssignment leftAssignment = assignments[random.nextInt(assignments.length)];
+        ClassUnitAssignment rightAssignment = assignments[random.nextInt(assignments.length)];
+        scoreDirector.beforeVariableChanged(leftAssignment, "teacher");
+        scoreDirector.beforeVariableChanged(rightAssignment, "teacher");
+        Teacher teacher = leftAssignment.getTeacher();
+        leftAssignment.setTeacher(rightAssignment.getTeacher());
+        rightAssignment.setTeacher(teacher);
+        scoreDirector.afterVariableChanged(leftAssignment, "teacher");
+        scoreDirector.afterVariableChanged(rightAssignment, "teacher");
+
+        scoreDirector.triggerVariableListeners();
+        return scoreDirector.calculateScore();
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static TimeTable loadDataset(String dataset) {
+        return switch (dataset) {
+            case "all_classes" -> CsvDataLoader.generateFromAllCsvFiles(
+                    "data/rooms.csv", "data/teachers.csv", "data/lunch_groups.csv", "data/lesson_list.csv", 1);
+            case "grades_678_limited" -> CsvDataLoader.generateFromAllCsvFiles(
+                    "data/rooms.csv", "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list_678.csv", 1);
+            case "grade_9_limited" -> CsvDataLoader.generateFromAllCsvFiles(
+                    "data/rooms.csv", "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list_9.csv", 3);
+            default -> throw new IllegalArgumentException("Unknown dataset: " + dataset);
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.score.stream.Constraint;
+import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
+import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
+
+import java.lang.reflect.Method;
+
+// Tikai viens TimeTableConstraintProvider ierobežojums, norādīts ar metodes nosaukumu
+// (constraintProviderCustomProperties: constraint=teacherGaps)
+public class SingleConstraintProvider implements ConstraintProvider {
+
+    private String constraint;
+
+    public void setConstraint(String constraint) {
+        this.constraint = constraint;
+    }
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
+        try {
+            Method method = TimeTableConstraintProvider.class.getDeclaredMethod(constraint, ConstraintFactory.class);
+            return new Constraint[]{(Constraint) method.invoke(new TimeTableConstraintProvider(), constraintFactory)};
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unknown constraint: " + constraint, e);
+        }
+    }
+}
@@ -9,8 +9,10 @@ import com.schoolplanner.timetable.service.GenerateFromCsv;
 public class BenchmarkRunner {
 
     public static void main(String[] args) {
+        // Pirmais arguments - cita benchmark konfigurācija, piemēram, benchmarkConfigMoveThreads.xml
+        String benchmarkConfig = args.length > 0 ? args[0] : "benchmarkConfig.xml";
         PlannerBenchmarkFactory benchmarkFactory =
-                PlannerBenchmarkFactory.createFromXmlResource("benchmarkConfig.xml");
+                PlannerBenchmarkFactory.createFromXmlResource(benchmarkConfig);
 
 
         //Visas klases A
@@ -1,16 +1,24 @@
 package com.schoolplanner.timetable.controller;
 
+import com.schoolplanner.timetable.controller.dto.ConstraintProfile;
 import com.schoolplanner.timetable.controller.dto.SolveJob;
+import com.schoolplanner.timetable.controller.dto.SolveOptions;
 import com.schoolplanner.timetable.controller.dto.SolveStatus;
 import com.schoolplanner.timetable.controller.dto.TimeTableResponse;
 import com.schoolplanner.timetable.domain.TimeTable;
 import com.schoolplanner.timetable.service.*;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/timetable")
@@ -18,65 +26,68 @@ public class TimeTableController {
 
     private final AsyncSolveService asyncSolveService;
     private final TimeTableService timeTableService;
+    private final ConstraintProfileService constraintProfileService;
+    private final SolveEventService solveEventService;
 
     public TimeTableController(
             AsyncSolveService asyncSolveService,
-            TimeTableService timeTableService
+            TimeTableService timeTableService,
+            ConstraintProfileService constraintProfileService,
+            SolveEventService solveEventService
     ) {
         this.asyncSolveService = asyncSolveService;
         this.timeTableService = timeTableService;
+        this.constraintProfileService = constraintProfileService;
+        this.solveEventService = solveEventService;
     }
 
     // Nosūtīt problēmu JSON formātā
     @PostMapping("/jobs")
-    public ResponseEntity<Map<String, String>> submitJsonProblem(
-            @RequestBody TimeTable problem
+    public ResponseEntity<Map<String, Object>> submitJsonProblem(
+            @RequestBody TimeTable problem,
+            SolveOptions options
     ) {
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(ProblemIndexer.index(problem), options);
     }
 
     // Nosūta problēmu no csv
     @PostMapping("/jobs/from-csv")
-    public ResponseEntity<Map<String, String>> submitCsvProblem() {
+    public ResponseEntity<Map<String, Object>> submitCsvProblem(SolveOptions options) {
 
         TimeTable problem = GenerateFromCsv.generateFromCsv("data/lesson_list.csv");
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     @PostMapping("/jobs/from-csv-test")
-    public ResponseEntity<Map<String, String>> submitCsvTestProblem() {
+    public ResponseEntity<Map<String, Object>> submitCsvTestProblem(SolveOptions options) {
 
         TimeTable problem = GenerateFromCsv.generateFromCsv("data/lesson_list_678.csv");
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     @PostMapping("/jobs/smalldemo")
-    public ResponseEntity<Map<String, String>> submitSmallDemo() {
+    public ResponseEntity<Map<String, Object>> submitSmallDemo(SolveOptions options) {
 
         TimeTable problem = SampleData.smallDemo();
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     @PostMapping("/jobs/testcase")
-    public ResponseEntity<Map<String, String>> submitTestCase() {
+    public ResponseEntity<Map<String, Object>> submitTestCase(SolveOptions options) {
 
         TimeTable problem = TestCase.testCase();
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     // Ielādē problēmu no augšupielādētiem CSV failiem
     @PostMapping("/jobs/upload")
-    public ResponseEntity<Map<String, String>> submitFromCsvFiles(
+    public ResponseEntity<Map<String, Object>> submitFromCsvFiles(
             @RequestParam("roomsCsv") MultipartFile roomsCsv,
             @RequestParam("teachersCsv") MultipartFile teachersCsv,
             @RequestParam("lunchGroupsCsv") MultipartFile lunchGroupsCsv,
             @RequestParam("lessonsCsv") MultipartFile lessonsCsv,
-            @RequestParam("classCount") int classCount
+            @RequestParam("classCount") int classCount,
+            SolveOptions options
     ) {
         TimeTable problem = CsvDataLoader.generateFromUploadedCsvFiles(
                 roomsCsv,
@@ -85,44 +96,38 @@ public class TimeTableController {
                 lessonsCsv,
                 classCount
         );
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     // Ielādē problēmu no visiem CSV failiem (rooms.csv, teachers.csv, lunch_groups.csv, lesson_list.csv)
     @PostMapping("/jobs/from-all-csv")
-    public ResponseEntity<Map<String, String>> submitFromAllCsvFiles() {
+    public ResponseEntity<Map<String, Object>> submitFromAllCsvFiles(SolveOptions options) {
         TimeTable problem = CsvDataLoader.generateFromAllCsvFiles();
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     @PostMapping("/jobs/from-all-csv-678-A-lim")
-    public ResponseEntity<Map<String, String>> submitFromAllCsvFiles678Alim() {
+    public ResponseEntity<Map<String, Object>> submitFromAllCsvFiles678Alim(SolveOptions options) {
         TimeTable problem = CsvDataLoader.generateFromAllCsvFiles("data/rooms.csv", "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list_678.csv", 1);
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     @PostMapping("/jobs/from-all-csv-678-AB")
-    public ResponseEntity<Map<String, String>> submitFromAllCsvFiles678AB() {
+    public ResponseEntity<Map<String, Object>> submitFromAllCsvFiles678AB(SolveOptions options) {
         TimeTable problem = CsvDataLoader.generateFromAllCsvFiles("data/rooms.csv", "data/teachers.csv", "data/lunch_groups.csv", "data/lesson_list_678.csv", 2);
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     @PostMapping("/jobs/from-all-csv-9-ABC")
-    public ResponseEntity<Map<String, String>> submitFromAllCsvFiles9ABC() {
+    public ResponseEntity<Map<String, Object>> submitFromAllCsvFiles9ABC(SolveOptions options) {
         TimeTable problem = CsvDataLoader.generateFromAllCsvFiles("data/rooms.csv", "data/teachers.csv", "data/lunch_groups.csv", "data/lesson_list_9.csv", 3);
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     @PostMapping("/jobs/from-all-csv-9-ABC-lim")
-    public ResponseEntity<Map<String, String>> submitFromAllCsvFilesABC() {
+    public ResponseEntity<Map<String, Object>> submitFromAllCsvFilesABC(SolveOptions options) {
         TimeTable problem = CsvDataLoader.generateFromAllCsvFiles("data/rooms.csv", "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list_9.csv", 3);
-        String jobId = asyncSolveService.submit(problem);
-        return ResponseEntity.accepted().body(Map.of("jobId", jobId));
+        return submit(problem, options);
     }
 
     // Izgūst risinājuma statusu
@@ -135,7 +140,38 @@ public class TimeTableController {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(Map.of("jobId", job.getJobId(), "status", job.getStatus()));
+        return ResponseEntity.ok(jobStatus(job));
+    }
+
+    // Aptur darbu: risināms darbs beidzas ar līdz šim labāko risinājumu (COMPLETED), gaidošs netiek sākts (CANCELLED).
+    // Pabeigtam darbam 409.
+    @PostMapping("/jobs/{jobId}/stop")
+    public ResponseEntity<Map<String, Object>> stopJob(
+            @PathVariable String jobId
+    ) {
+        SolveJob job = asyncSolveService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (!asyncSolveService.stop(job)) {
+            return ResponseEntity.status(409).body(jobStatus(job));
+        }
+        return ResponseEntity.accepted().body(jobStatus(job));
+    }
+
+    // Aptur darbu (ja tas vēl nav pabeigts) un izdzēš to kopā ar risinājumu
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<Void> deleteJob(
+            @PathVariable String jobId
+    ) {
+        SolveJob job = asyncSolveService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        asyncSolveService.delete(job);
+        return ResponseEntity.noContent().build();
     }
 
     // Risinājuma rezultāta iegūšana
@@ -153,12 +189,48 @@ public class TimeTableController {
                     .body(null);
         }
 
-        TimeTable solution = job.getSolution();
+        // Pabeigta darba risinājums var būt izlikts diskā; tad to nolasa no faila
+        TimeTable solution = asyncSolveService.solution(job);
+        if (solution == null) {
+            return ResponseEntity.notFound().build();
+        }
         var explanation = timeTableService.getSolutionManager().explain(solution);
 
         return ResponseEntity.ok(new TimeTableResponse(solution, explanation));
     }
 
+    // Risināšanas gaita kā Server-Sent Events: status (katra statusa maiņa), score (katrs jauns labākais rezultāts)
+    // un solution (kompakts risinājums, ne biežāk kā timetable.jobs.events.snapshot-interval); beidzas, kad darbs pabeigts
+    @GetMapping(path = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> getEvents(
+            @PathVariable String jobId
+    ) {
+        SolveJob job = asyncSolveService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(solveEventService.subscribe(job, asyncSolveService.latestSolution(job)));
+    }
+
+    // Ierobežojumu profils: kopējais izvērtēšanas laiks un atbilstību skaits katram ierobežojumam.
+    // Katrs pieprasījums izvērtē darba jaunāko risinājumu un pieskaita mērījumu kopējam profilam. Mērījums notiek
+    // profilēšanas pavedienā (atbilde ir asinhrona); vienlaicīgi pieprasījumi vienam darbam saņem vienu mērījumu.
+    @GetMapping("/jobs/{jobId}/profile")
+    public CompletableFuture<ResponseEntity<List<ConstraintProfile>>> getProfile(
+            @PathVariable String jobId
+    ) {
+        SolveJob job = asyncSolveService.getJob(jobId);
+        if (job == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+
+        return constraintProfileService.profile(job, () -> asyncSolveService.latestSolution(job))
+                .thenApply(profile -> profile == null
+                        ? ResponseEntity.status(409).<List<ConstraintProfile>>body(null)
+                        : ResponseEntity.ok(profile));
+    }
+
     // Atgriež visus risinājumu statusus
     @GetMapping("/alljobs")
     public ResponseEntity<Map<String, Object>> getAllJobStatuses(
@@ -175,4 +247,37 @@ public class TimeTableController {
 
         return ResponseEntity.ok(result);
     }
+
+    // Iesniedz darbu ar pieprasījuma iestatījumiem; nederīgi iestatījumi (piemēram, moveThreadCount) -> 400,
+    // pilna darbu rinda -> 503
+    private ResponseEntity<Map<String, Object>> submit(TimeTable problem, SolveOptions options) {
+        try {
+            String jobId = asyncSolveService.submit(problem, options);
+            return ResponseEntity.accepted().body(jobStatus(asyncSolveService.getJob(jobId)));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    // Darba statuss; gaidošam darbam arī vieta rindā un aptuvenais sākuma laiks
+    private Map<String, Object> jobStatus(SolveJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", job.getJobId());
+        status.put("status", job.getStatus());
+        status.put("priority", job.getPriority());
+        status.put("submittedAt", job.getSubmittedAt().toString());
+        if (job.getStatus() == SolveStatus.PENDING) {
+            status.put("queuePosition", asyncSolveService.queuePosition(job));
+            status.put("estimatedStartTime", String.valueOf(asyncSolveService.estimatedStartTime(job)));
+        }
+        if (job.getStartedAt() != null) {
+            status.put("startedAt", job.getStartedAt().toString());
+        }
+        if (job.getFinishedAt() != null) {
+            status.put("finishedAt", job.getFinishedAt().toString());
+        }
+        return status;
+    }
 }
@@ -0,0 +1,30 @@
+package com.schoolplanner.timetable.controller.dto;
+
+import lombok.Getter;
+
+// Viena ierobežojuma profils darbam no pēdējā mērījuma: katrs mērījums aizstāj iepriekšējo, tāpēc laiks uz gājienu
+// atbilst pēdējam izvērtētajam risinājumam
+@Getter
+public class ConstraintProfile {
+
+    private final String constraintName;
+    private volatile int matchCount;
+    private volatile String score;
+    private volatile long evaluationCount;
+    private volatile long evaluationNanos;
+
+    public ConstraintProfile(String constraintName) {
+        this.constraintName = constraintName;
+    }
+
+    public synchronized void update(int matchCount, String score, long evaluationCount, long evaluationNanos) {
+        this.matchCount = matchCount;
+        this.score = score;
+        this.evaluationCount = evaluationCount;
+        this.evaluationNanos = evaluationNanos;
+    }
+
+    public synchronized double getAverageEvaluationMicros() {
+        return evaluationCount == 0 ? 0.0 : evaluationNanos / 1000.0 / evaluationCount;
+    }
+}
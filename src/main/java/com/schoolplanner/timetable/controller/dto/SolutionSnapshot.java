@@ -0,0 +1,62 @@
+package com.schoolplanner.timetable.controller.dto;
+
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.LunchGroup;
+import com.schoolplanner.timetable.domain.TimeSlot;
+import com.schoolplanner.timetable.domain.TimeTable;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Kompakts risinājuma stāvoklis notikumu plūsmai (/jobs/{jobId}/events): laiki vienreiz, stundām tikai saskarnē
+// rādāmie lauki un laiku id, bez skolotāju kvalifikācijām un darba laikiem kā TimeTableResponse
+@Getter
+public class SolutionSnapshot {
+
+    private final String score;
+    private final List<TimeSlot> timeSlots;
+    private final List<LunchGroup> lunchGroups;
+    private final List<LessonView> lessons;
+
+    public SolutionSnapshot(TimeTable solution) {
+        this.score = String.valueOf(solution.getScore());
+        this.timeSlots = solution.getTimeSlots();
+        this.lunchGroups = solution.getLunchGroups();
+        this.lessons = new ArrayList<>(solution.getLessons().size());
+        for (Lesson lesson : solution.getLessons()) {
+            lessons.add(new LessonView(lesson));
+        }
+    }
+
+    @Getter
+    public static class LessonView {
+
+        private final Long id;
+        private final String schoolClass;
+        private final Integer grade;
+        private final String subject;
+        private final String roomType;
+        private final String teacherId;
+        private final String teacherName;
+        private final String room;
+        // Visi bloka laiki (Lesson.getTimeSlots); tukšs, ja stundai vēl nav laika
+        private final List<Long> timeSlotIds = new ArrayList<>();
+
+        private LessonView(Lesson lesson) {
+            this.id = lesson.getId();
+            this.schoolClass = lesson.getSchoolClass() == null ? null : lesson.getSchoolClass().getName();
+            this.grade = lesson.getSchoolClass() == null ? null : lesson.getSchoolClass().getGrade();
+            this.subject = lesson.getTeachingUnit() == null ? null : String.valueOf(lesson.getTeachingUnit().getSubject());
+            this.roomType = lesson.getTeachingUnit() == null ? null : String.valueOf(lesson.getTeachingUnit().getRoomType());
+            this.teacherId = lesson.getTeacher() == null ? null : lesson.getTeacher().getId();
+            this.teacherName = lesson.getTeacher() == null ? null
+                    : ((lesson.getTeacher().getFirstName() == null ? "" : lesson.getTeacher().getFirstName()) + " "
+                    + (lesson.getTeacher().getLastName() == null ? "" : lesson.getTeacher().getLastName())).trim();
+            this.room = lesson.getRoom() == null ? null : lesson.getRoom().getId();
+            for (TimeSlot slot : lesson.getTimeSlots()) {
+                timeSlotIds.add(slot.getId());
+            }
+        }
+    }
+}
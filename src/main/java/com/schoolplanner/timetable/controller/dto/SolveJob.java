@@ -4,17 +4,42 @@ import com.schoolplanner.timetable.domain.TimeTable;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Getter
 @Setter
 public class SolveJob {
 
     private final String jobId;
+    // Augstākas prioritātes darbi rindā tiek risināti vispirms, vienādas prioritātes - iesniegšanas secībā
+    private final int priority;
+    private final Instant submittedAt = Instant.now();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
     private volatile SolveStatus status;
     private volatile TimeTable solution;
+    // Jaunākais labākais risinājums, kamēr darbs vēl tiek risināts
+    private volatile TimeTable bestSolution;
+    // Galīgā risinājuma fails, kad risinājums izlikts diskā (tad solution ir null)
+    private volatile Path solutionFile;
     private volatile Exception error;
+    // Apturēšana pieprasīta, kad slota pavediens jau paņēmis darbu no rindas
+    private volatile boolean stopRequested;
+    // Izmests (izdzēsts vai beidzies glabāšanas laiks): risinājumu vairs neatgriež un profilu nereģistrē
+    private volatile boolean evicted;
+    private final Map<String, ConstraintProfile> constraintProfiles = Collections.synchronizedMap(new LinkedHashMap<>());
 
     public SolveJob(String jobId) {
+        this(jobId, 0);
+    }
+
+    public SolveJob(String jobId, int priority) {
         this.jobId = jobId;
+        this.priority = priority;
         this.status = SolveStatus.PENDING;
     }
 }
@@ -0,0 +1,31 @@
+package com.schoolplanner.timetable.controller.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Viena darba risinātāja iestatījumi no pieprasījuma parametriem (piemēram, ?moveThreadCount=4&priority=10&secondsSpentLimit=60).
+// Neuzdotie iestatījumi ņemti no solverConfig.xml un application.properties.
+@Getter
+@Setter
+@NoArgsConstructor
+public class SolveOptions {
+
+    // NONE, AUTO vai pavedienu skaits; vairāku pavedienu gājienu izvērtēšanai vajag Timefold Solver Enterprise Edition
+    private String moveThreadCount;
+
+    // Rindā augstākas prioritātes darbi sāk risināt pirmie (noklusējums 0)
+    private int priority;
+
+    // Beigšanas nosacījums (tie paši nosaukumi kā solverConfig.xml <termination>); neuzdotie paliek no solverConfig.xml.
+    // Kopējais risināšanas laiks sekundēs (aizstāj <secondsSpentLimit>)
+    private Long secondsSpentLimit;
+    // Sekundes bez uzlabojuma (aizstāj <unimprovedSecondsSpentLimit>, t.i., pēc 0hard sasniegšanas)
+    private Long unimprovedSecondsSpentLimit;
+    // Mērķa rezultāts, piemēram, 0hard/-20soft vai 0hard/*soft: sasniedzot to, risināšana beidzas
+    private String bestScoreLimit;
+
+    public static SolveOptions defaults() {
+        return new SolveOptions();
+    }
+}
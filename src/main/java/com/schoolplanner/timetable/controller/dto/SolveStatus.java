@@ -4,5 +4,7 @@ public enum SolveStatus {
     PENDING,
     SOLVING,
     COMPLETED,
-    FAILED
+    FAILED,
+    // Apturēts, pirms sāka risināt
+    CANCELLED
 }
@@ -0,0 +1,64 @@
+package com.schoolplanner.timetable.domain;
+
+import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
+import ai.timefold.solver.core.api.domain.variable.PlanningVariable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Skolotāja izvēle vienam (klase, mācību vienība) pārim. Visas pāra stundas saņem šo skolotāju
+// caur ēnas mainīgo Lesson.teacher, tāpēc skolotāja maiņa vienmēr attiecas uz visām pāra stundām.
+@PlanningEntity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ClassUnitAssignment {
+
+    @PlanningId
+    private Long id;
+
+    private SchoolClass schoolClass;
+    private TeachingUnit teachingUnit;
+
+    @PlanningVariable(valueRangeProviderRefs = "assignmentTeacherRange", strengthComparatorClass = TeacherStrengthComparator.class)
+    private Teacher teacher;
+
+    // Tikai kvalificēti skolotāji; ProblemIndexer tos aprēķina vienreiz katrai mācību vienībai
+    @ValueRangeProvider(id = "assignmentTeacherRange")
+    private List<Teacher> teacherRange;
+
+    private List<Lesson> lessons = new ArrayList<>();
+
+    public ClassUnitAssignment(Long id, SchoolClass schoolClass, TeachingUnit teachingUnit) {
+        this.id = id;
+        this.schoolClass = schoolClass;
+        this.teachingUnit = teachingUnit;
+    }
+
+    // Ārpus risinātāja (ielāde, testi): uzstāda skolotāju un uzreiz arī stundu ēnas mainīgo
+    public void assignTeacher(Teacher teacher) {
+        this.teacher = teacher;
+        for (Lesson lesson : lessons) {
+            lesson.setTeacher(teacher);
+        }
+    }
+
+    // Pāra stundu periodu skaits (bloks skaitās ar visiem tā periodiem)
+    public int getPeriodCount() {
+        int periods = 0;
+        for (Lesson lesson : lessons) {
+            periods += lesson.getPeriods();
+        }
+        return periods;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassUnitAssignment(" + id + ")";
+    }
+}
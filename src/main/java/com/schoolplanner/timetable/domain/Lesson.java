@@ -2,9 +2,16 @@ package com.schoolplanner.timetable.domain;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.domain.variable.PlanningVariable;
+import ai.timefold.solver.core.api.domain.variable.ShadowVariable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,21 +27,82 @@ public class Lesson {
     private TeachingUnit teachingUnit;
     private SchoolClass schoolClass;
 
-    @PlanningVariable(valueRangeProviderRefs = "teacherRange")
+    // Skolotāju izvēlas ClassUnitAssignment visām (klase, mācību vienība) pāra stundām
+    @JsonIgnore
+    @ToString.Exclude
+    private ClassUnitAssignment assignment;
+
+    @ShadowVariable(variableListenerClass = LessonTeacherVariableListener.class,
+            sourceEntityClass = ClassUnitAssignment.class, sourceVariableName = "teacher")
     private Teacher teacher;
 
-    @PlanningVariable(valueRangeProviderRefs = "timeslotRange")
+    // Bloka pirmais periods; bloks aizņem periods pēc kārtas esošus laikus tajā pašā dienā
+    @PlanningVariable(valueRangeProviderRefs = "lessonTimeslotRange", strengthComparatorClass = TimeSlotStrengthComparator.class)
     private TimeSlot timeSlot;
 
-    @PlanningVariable(valueRangeProviderRefs = "roomRange")
+    // Priekšmetiem, kuriem jānotiek pēc kārtas, ProblemIndexer visas (klase, mācību vienība) stundas apvieno vienā blokā
+    private int periods = 1;
+
+    @PlanningVariable(valueRangeProviderRefs = "lessonRoomRange", strengthComparatorClass = RoomStrengthComparator.class)
     private Room room;
 
+    // Tikai vajadzīgā tipa telpas un laiki ārpus pusdienām (un ārpus vienīgā kvalificētā skolotāja
+    // darba laika); ProblemIndexer tos aprēķina vienreiz un līdzīgas stundas izmanto to pašu sarakstu
+    @JsonIgnore
+    @ToString.Exclude
+    @ValueRangeProvider(id = "lessonTimeslotRange")
+    private List<TimeSlot> timeSlotRange;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @ValueRangeProvider(id = "lessonRoomRange")
+    private List<Room> roomRange;
+
     public Lesson(Long id, TeachingUnit teachingUnit, SchoolClass schoolClass) {
         this.id = id;
         this.teachingUnit = teachingUnit;
         this.schoolClass = schoolClass;
     }
 
+    // Cik no bloka periodiem dienā patiešām ir (bloks dienas beigās var neietilpt)
+    @JsonIgnore
+    public int getSpan() {
+        if (timeSlot == null) return 0;
+        int span = 1;
+        for (TimeSlot slot = timeSlot.getNextInDay(); slot != null && span < periods; slot = slot.getNextInDay()) {
+            span++;
+        }
+        return span;
+    }
+
+    // Aizņemtie laiki ir [timeSlot.ordinal, endOrdinal)
+    @JsonIgnore
+    public int getEndOrdinal() {
+        return timeSlot.getOrdinal() + getSpan();
+    }
+
+    // Aizņemtie periodi dienā kā bitmaska (bits i = periods i)
+    @JsonIgnore
+    public long getPeriodMask() {
+        return ((1L << getSpan()) - 1) << timeSlot.getPeriodIndex();
+    }
+
+    // Visi bloka laiki - saskarnei, lai bloku parādītu katrā tā periodā
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public List<TimeSlot> getTimeSlots() {
+        List<TimeSlot> timeSlots = new ArrayList<>();
+        for (TimeSlot slot = timeSlot; slot != null && timeSlots.size() < periods; slot = slot.getNextInDay()) {
+            timeSlots.add(slot);
+        }
+        return timeSlots;
+    }
+
+    // Vienas (klase, mācību vienība) pāra stundas ar vienādu garumu ir savstarpēji aizvietojamas: tās atšķiras tikai
+    // ar laiku un telpu, tāpēc to laiku un telpu permutācija ir tas pats saraksts ar to pašu rezultātu
+    public boolean isInterchangeableWith(Lesson other) {
+        return assignment != null && assignment == other.assignment && periods == other.periods;
+    }
+
     public boolean isValidRoom() {
         if (room == null || teachingUnit == null) return false;
         return room.getRoomType() == teachingUnit.getRoomType();
@@ -2,19 +2,34 @@ package com.schoolplanner.timetable.domain;
 
 import java.util.Comparator;
 
+// Grūtība tikai no nemainīgiem faktiem, ko ProblemIndexer aprēķina pirms risināšanas, nevis no plānošanas mainīgajiem:
+// grūtāka ir stunda ar mazāk iespējamiem sākuma laikiem (tie jau ņem vērā pusdienas, bloka garumu un vienīgā
+// skolotāja darba laiku), tad ar mazāk kvalificētiem skolotājiem, mazāk telpām un garāks bloks
 public class LessonDifficultyComparator implements Comparator<Lesson> {
 
+    private static final Comparator<Lesson> COMPARATOR =
+            Comparator.comparingInt(LessonDifficultyComparator::timeSlotOptions).reversed()
+                    .thenComparing(Comparator.comparingInt(LessonDifficultyComparator::teacherOptions).reversed())
+                    .thenComparing(Comparator.comparingInt(LessonDifficultyComparator::roomOptions).reversed())
+                    .thenComparingInt(Lesson::getPeriods)
+                    .thenComparing(Lesson::getId);
+
     @Override
     public int compare(Lesson a, Lesson b) {
-        int aSlots = (a.getTeacher() == null) ? Integer.MAX_VALUE : a.getTeacher().getWorkTimeSlots().size();
-        int bSlots = (b.getTeacher() == null) ? Integer.MAX_VALUE : b.getTeacher().getWorkTimeSlots().size();
+        return COMPARATOR.compare(a, b);
+    }
 
-        int availabilityComparison = Integer.compare(bSlots, aSlots);
+    private static int timeSlotOptions(Lesson lesson) {
+        return lesson.getTimeSlotRange() == null ? Integer.MAX_VALUE : lesson.getTimeSlotRange().size();
+    }
 
-        if (availabilityComparison != 0) {
-            return availabilityComparison;
-        }
+    private static int teacherOptions(Lesson lesson) {
+        ClassUnitAssignment assignment = lesson.getAssignment();
+        return assignment == null || assignment.getTeacherRange() == null
+                ? Integer.MAX_VALUE : assignment.getTeacherRange().size();
+    }
 
-        return Long.compare(a.getId(), b.getId());
+    private static int roomOptions(Lesson lesson) {
+        return lesson.getRoomRange() == null ? Integer.MAX_VALUE : lesson.getRoomRange().size();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.schoolplanner.timetable.domain;
+
+import ai.timefold.solver.core.api.domain.variable.VariableListener;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+
+// Pārnes ClassUnitAssignment.teacher uz visām pāra stundām (Lesson.teacher)
+public class LessonTeacherVariableListener implements VariableListener<TimeTable, ClassUnitAssignment> {
+
+    @Override
+    public void beforeEntityAdded(ScoreDirector<TimeTable> scoreDirector, ClassUnitAssignment assignment) {
+    }
+
+    @Override
+    public void afterEntityAdded(ScoreDirector<TimeTable> scoreDirector, ClassUnitAssignment assignment) {
+        updateLessons(scoreDirector, assignment);
+    }
+
+    @Override
+    public void beforeVariableChanged(ScoreDirector<TimeTable> scoreDirector, ClassUnitAssignment assignment) {
+    }
+
+    @Override
+    public void afterVariableChanged(ScoreDirector<TimeTable> scoreDirector, ClassUnitAssignment assignment) {
+        updateLessons(scoreDirector, assignment);
+    }
+
+    @Override
+    public void beforeEntityRemoved(ScoreDirector<TimeTable> scoreDirector, ClassUnitAssignment assignment) {
+    }
+
+    @Override
+    public void afterEntityRemoved(ScoreDirector<TimeTable> scoreDirector, ClassUnitAssignment assignment) {
+    }
+
+    private static void updateLessons(ScoreDirector<TimeTable> scoreDirector, ClassUnitAssignment assignment) {
+        Teacher teacher = assignment.getTeacher();
+        for (Lesson lesson : assignment.getLessons()) {
+            if (lesson.getTeacher() != teacher) {
+                scoreDirector.beforeVariableChanged(lesson, "teacher");
+                lesson.setTeacher(teacher);
+                scoreDirector.afterVariableChanged(lesson, "teacher");
+            }
+        }
+    }
+}
@@ -1,25 +1,61 @@
 package com.schoolplanner.timetable.domain;
 
-import lombok.AllArgsConstructor;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.time.LocalTime;
 import java.util.List;
 
 @NoArgsConstructor
-@AllArgsConstructor
 @Getter
 @Setter
 public class LunchGroup {
+    // Pusdienu grupas nosaukums ir unikāls (lunch_groups.csv)
+    @PlanningId
     private String name;
     private int minGrade;
     private int maxGrade;
 
     private List<TimeSlot> lunchTimeSlots; // satur vairāku dienu pusdienu laikus (Pirmdiena 12:45 - 13:00 vai Otrdiena 13:45 - 15:00 utt., bet praktiski tiks izmantots tas pats laiks visās dienās)
 
+    // Pusdienu laiki katrai dienai kā periodu bitmaska (bits i = TimeSlot.periodIndex i), aprēķināta vienreiz
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private long[] lunchMaskByDay = new long[SchoolDay.values().length];
+
+    public LunchGroup(String name, int minGrade, int maxGrade, List<TimeSlot> lunchTimeSlots) {
+        this.name = name;
+        this.minGrade = minGrade;
+        this.maxGrade = maxGrade;
+        setLunchTimeSlots(lunchTimeSlots);
+    }
+
+    public void setLunchTimeSlots(List<TimeSlot> lunchTimeSlots) {
+        this.lunchTimeSlots = lunchTimeSlots;
+        long[] masks = new long[SchoolDay.values().length];
+        if (lunchTimeSlots != null) {
+            for (TimeSlot slot : lunchTimeSlots) {
+                // Neindeksētus laikus ignorē - ProblemIndexer tos pārrēķina pēc indeksu piešķiršanas
+                if (slot.isIndexed()) {
+                    masks[slot.getDayIndex()] |= 1L << slot.getPeriodIndex();
+                }
+            }
+        }
+        this.lunchMaskByDay = masks;
+    }
+
+    public long lunchMask(int dayIndex) {
+        return lunchMaskByDay[dayIndex];
+    }
+
+    public boolean isLunchSlot(TimeSlot slot) {
+        return (lunchMaskByDay[slot.getDayIndex()] & (1L << slot.getPeriodIndex())) != 0L;
+    }
+
     public boolean appliesToGrade(int grade) {
         return grade >= minGrade && grade <= maxGrade;
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,26 @@
 package com.schoolplanner.timetable.domain;
 
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class Room {
     @PlanningId
     private String id;
     private RoomType roomType;
 
+    // Kam no skolotājiem šī ir kabinets (RoomStrengthComparator); aprēķina ProblemIndexer
+    @JsonIgnore
+    private int homeRoomTeacherCount;
+
+    public Room(String id, RoomType roomType) {
+        this.id = id;
+        this.roomType = roomType;
+    }
+
     @Override
     public String toString() {
         return id;
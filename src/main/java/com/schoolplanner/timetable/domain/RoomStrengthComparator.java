@@ -0,0 +1,15 @@
+package com.schoolplanner.timetable.domain;
+
+import java.util.Comparator;
+
+// Stiprāka ir telpa, kas ir kabinets vairākiem skolotājiem (tajā stunda var izpildīt teacherRoomStability)
+public class RoomStrengthComparator implements Comparator<Room> {
+
+    private static final Comparator<Room> COMPARATOR = Comparator.comparingInt(Room::getHomeRoomTeacherCount)
+            .thenComparing(Room::getId);
+
+    @Override
+    public int compare(Room a, Room b) {
+        return COMPARATOR.compare(a, b);
+    }
+}
@@ -1,17 +1,28 @@
 package com.schoolplanner.timetable.domain;
 
-import lombok.AllArgsConstructor;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 // Reprezentē kādu skolas klasi, piemēram, 7A
 @NoArgsConstructor
-@AllArgsConstructor
 @Getter
 @Setter
 public class SchoolClass {
+    @PlanningId
     private Long id;
     private String name; // A...
     private int grade; // 1-12
-}
\ No newline at end of file
+
+    // Klasei atbilstošā pusdienu grupa, piesaistīta vienreiz pēc problēmas ielādes (sk. ProblemIndexer)
+    @JsonIgnore
+    private LunchGroup lunchGroup;
+
+    public SchoolClass(Long id, String name, int grade) {
+        this.id = id;
+        this.name = name;
+        this.grade = grade;
+    }
+}
@@ -1,15 +1,17 @@
 package com.schoolplanner.timetable.domain;
 
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class Teacher {
     @PlanningId
     private String id;
@@ -17,5 +19,110 @@ public class Teacher {
     private String lastName;
     private Room homeRoom; // kabinets, kurā ikdienā strādā skolotāja
     private Set<TeachingUnit> qualifiedUnits; // skolotāja var pasniegt sākumskolas matemātiku, bet ne vidusskolas
-    private Set<TimeSlot> workTimeSlots; // solver draudzīga versija
-}
\ No newline at end of file
+
+    // Kvalifikācijas kā bitkopa pār TeachingUnit.ordinal, aprēķināta no qualifiedUnits
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private long[] qualifications = new long[0];
+
+    // Pieejamie laiki kā bitkopa pār TimeSlot.ordinal - ierobežojumi un salīdzinātāji izmanto tikai to
+    @JsonIgnore
+    private long[] availability = new long[0];
+    @JsonIgnore
+    private int availableSlotCount;
+    // Laiki, no kuriem pēc vajadzības veido workTimeSlots skatu (JSON atbildei)
+    @JsonIgnore
+    private List<TimeSlot> availabilityTimeSlots = List.of();
+
+    public Teacher(String id, String firstName, String lastName, Room homeRoom, Set<TeachingUnit> qualifiedUnits) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.homeRoom = homeRoom;
+        setQualifiedUnits(qualifiedUnits);
+    }
+
+    public void setQualifiedUnits(Set<TeachingUnit> qualifiedUnits) {
+        long[] bits = new long[0];
+        if (qualifiedUnits != null) {
+            for (TeachingUnit unit : qualifiedUnits) {
+                if (!unit.isIndexed()) continue;
+                int word = unit.getOrdinal() >>> 6;
+                if (word >= bits.length) {
+                    bits = Arrays.copyOf(bits, word + 1);
+                }
+                bits[word] |= 1L << unit.getOrdinal();
+            }
+        }
+        this.qualifiedUnits = qualifiedUnits;
+        this.qualifications = bits;
+    }
+
+    public boolean isQualifiedFor(TeachingUnit unit) {
+        int ordinal = unit.getOrdinal();
+        int word = ordinal >>> 6;
+        return word < qualifications.length && (qualifications[word] & (1L << ordinal)) != 0L;
+    }
+
+    public void setAvailability(long[] availability, List<TimeSlot> timeSlots) {
+        int count = 0;
+        for (long word : availability) {
+            count += Long.bitCount(word);
+        }
+        this.availability = availability;
+        this.availableSlotCount = count;
+        this.availabilityTimeSlots = timeSlots;
+    }
+
+    public boolean isAvailable(TimeSlot timeSlot) {
+        int ordinal = timeSlot.getOrdinal();
+        int word = ordinal >>> 6;
+        return word < availability.length && (availability[word] & (1L << ordinal)) != 0L;
+    }
+
+    // Cik no laikiem [fromOrdinal, toOrdinal) skolotājs nav pieejams (vairāku periodu blokiem)
+    public int unavailableCount(int fromOrdinal, int toOrdinal) {
+        int count = 0;
+        for (int ordinal = fromOrdinal; ordinal < toOrdinal; ordinal++) {
+            int word = ordinal >>> 6;
+            if (word >= availability.length || (availability[word] & (1L << ordinal)) == 0L) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // solver draudzīgā versija ir availability; kopa tiek veidota tikai pēc pieprasījuma
+    public Set<TimeSlot> getWorkTimeSlots() {
+        Set<TimeSlot> workTimeSlots = new LinkedHashSet<>();
+        for (TimeSlot timeSlot : availabilityTimeSlots) {
+            // Neindeksētos laikus (vēl nav izgājuši caur ProblemIndexer) atgriež tādus, kādi tie iedoti
+            if (!timeSlot.isIndexed() || isAvailable(timeSlot)) {
+                workTimeSlots.add(timeSlot);
+            }
+        }
+        return workTimeSlots;
+    }
+
+    public void setWorkTimeSlots(Set<TimeSlot> workTimeSlots) {
+        List<TimeSlot> timeSlots = workTimeSlots == null ? List.of() : List.copyOf(workTimeSlots);
+        setAvailability(availabilityBits(timeSlots), timeSlots);
+    }
+
+    public static long[] availabilityBits(Collection<TimeSlot> timeSlots) {
+        int maxOrdinal = -1;
+        for (TimeSlot timeSlot : timeSlots) {
+            maxOrdinal = Math.max(maxOrdinal, timeSlot.getOrdinal());
+        }
+        if (maxOrdinal < 0) {
+            return new long[0];
+        }
+        long[] bits = new long[(maxOrdinal >>> 6) + 1];
+        for (TimeSlot timeSlot : timeSlots) {
+            if (timeSlot.isIndexed()) {
+                bits[timeSlot.getOrdinal() >>> 6] |= 1L << timeSlot.getOrdinal();
+            }
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,20 @@
+package com.schoolplanner.timetable.domain;
+
+import java.util.Comparator;
+
+// Stiprāks ir skolotājs ar vairāk pieejamiem laikiem, tad ar vairāk mācību vienībām, ko drīkst pasniegt
+public class TeacherStrengthComparator implements Comparator<Teacher> {
+
+    private static final Comparator<Teacher> COMPARATOR = Comparator.comparingInt(Teacher::getAvailableSlotCount)
+            .thenComparingInt(TeacherStrengthComparator::qualifiedUnitCount)
+            .thenComparing(Teacher::getId);
+
+    @Override
+    public int compare(Teacher a, Teacher b) {
+        return COMPARATOR.compare(a, b);
+    }
+
+    private static int qualifiedUnitCount(Teacher teacher) {
+        return teacher.getQualifiedUnits() == null ? 0 : teacher.getQualifiedUnits().size();
+    }
+}
@@ -1,14 +1,35 @@
 package com.schoolplanner.timetable.domain;
+
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 @Getter
 @Setter
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class TeachingUnit {
+    @PlanningId
+    @EqualsAndHashCode.Include
     private Long id;
     private Subject subject; // Matemātika
     private int grade; // 7. klasei
     private RoomType roomType; // šim priekšmetam obligāti vajag sporta zāli, ja tas ir sports, piemēram
+
+    // Blīvs indekss (0..n-1), ko piešķir ProblemIndexer; pēc tā veidotas skolotāju kvalifikāciju bitkopas
+    @JsonIgnore
+    private int ordinal = -1;
+
+    public TeachingUnit(Long id, Subject subject, int grade, RoomType roomType) {
+        this.id = id;
+        this.subject = subject;
+        this.grade = grade;
+        this.roomType = roomType;
+    }
+
+    @JsonIgnore
+    public boolean isIndexed() {
+        return ordinal >= 0;
+    }
 }
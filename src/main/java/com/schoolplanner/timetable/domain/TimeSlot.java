@@ -1,17 +1,50 @@
 package com.schoolplanner.timetable.domain;
 
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import java.time.LocalTime;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class TimeSlot {
     @PlanningId
     private Long id;
     private SchoolDay schoolDay;
     private LocalTime startTime;
     private LocalTime endTime;
-}
\ No newline at end of file
+
+    // Blīvi indeksi, ko piešķir ielāde (sk. ProblemIndexer.indexTimeSlots); -1 nozīmē, ka vēl nav piešķirts
+    private int dayIndex = -1; // dienas numurs režģī, sākot ar 0
+    private int periodIndex = -1; // stundas numurs dienā, sākot ar 0
+    private int ordinal = -1; // numurs visas nedēļas režģī, sākot ar 0
+
+    // Nākamais periods tajā pašā dienā vai null dienas beigās; pa to iet vairāku periodu stundas (Lesson.periods)
+    @JsonIgnore
+    private TimeSlot nextInDay;
+
+    // Cik skolotāju šajā laikā strādā (TimeSlotStrengthComparator); aprēķina ProblemIndexer
+    @JsonIgnore
+    private int availableTeacherCount;
+
+    public TimeSlot(Long id, SchoolDay schoolDay, LocalTime startTime, LocalTime endTime) {
+        this.id = id;
+        this.schoolDay = schoolDay;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public TimeSlot(Long id, SchoolDay schoolDay, LocalTime startTime, LocalTime endTime,
+                    int dayIndex, int periodIndex, int ordinal) {
+        this(id, schoolDay, startTime, endTime);
+        this.dayIndex = dayIndex;
+        this.periodIndex = periodIndex;
+        this.ordinal = ordinal;
+    }
+
+    @JsonIgnore
+    public boolean isIndexed() {
+        return dayIndex >= 0 && periodIndex >= 0 && ordinal >= 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.schoolplanner.timetable.domain;
+
+import java.util.Comparator;
+
+// Stiprāks ir laiks, kurā var strādāt vairāk skolotāju; vienādiem agrāks periods dienā ir stiprāks,
+// jo studentGaps un lessLessonsBefore dod priekšroku kompaktām dienām, kas sākas agri
+public class TimeSlotStrengthComparator implements Comparator<TimeSlot> {
+
+    private static final Comparator<TimeSlot> COMPARATOR = Comparator.comparingInt(TimeSlot::getAvailableTeacherCount)
+            .thenComparing(Comparator.comparingInt(TimeSlot::getPeriodIndex).reversed())
+            .thenComparing(Comparator.comparingInt(TimeSlot::getOrdinal).reversed());
+
+    @Override
+    public int compare(TimeSlot a, TimeSlot b) {
+        return COMPARATOR.compare(a, b);
+    }
+}
@@ -2,13 +2,13 @@ package com.schoolplanner.timetable.domain;
 
 import java.util.List;
 
+import ai.timefold.solver.core.api.domain.solution.ConstraintWeightOverrides;
 import ai.timefold.solver.core.api.domain.solution.PlanningEntityCollectionProperty;
 import ai.timefold.solver.core.api.domain.solution.PlanningScore;
 import ai.timefold.solver.core.api.domain.solution.PlanningSolution;
 import ai.timefold.solver.core.api.domain.solution.ProblemFactCollectionProperty;
-import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -17,19 +17,17 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class TimeTable {
 
+    // Laiku, telpu un skolotāju vērtību apgabali ir katrai stundai / pārim atsevišķi
+    // (Lesson.timeSlotRange, Lesson.roomRange, ClassUnitAssignment.teacherRange)
     @ProblemFactCollectionProperty
-    @ValueRangeProvider(id = "timeslotRange")
     private List<TimeSlot> timeSlots;
 
     @ProblemFactCollectionProperty
-    @ValueRangeProvider(id = "roomRange")
     private List<Room> rooms;
 
     @ProblemFactCollectionProperty
-    @ValueRangeProvider(id = "teacherRange")
     private List<Teacher> teachers;
 
     @ProblemFactCollectionProperty
@@ -38,9 +36,29 @@ public class TimeTable {
     @ProblemFactCollectionProperty
     private List<SchoolClass> schoolClasses;
 
+    // ProblemIndexer tos izveido no stundām, viens katram (klase, mācību vienība) pārim
+    @JsonIgnore
+    @PlanningEntityCollectionProperty
+    private List<ClassUnitAssignment> classUnitAssignments;
+
     @PlanningEntityCollectionProperty
     private List<Lesson> lessons;
 
     @PlanningScore
     private HardSoftScore score;
-}
\ No newline at end of file
+
+    // Ierobežojumu svaru izmaiņas; ierobežojumi ar svaru 0 netiek izvērtēti (skat. TimeTableService divu posmu risināšanu)
+    @JsonIgnore
+    private ConstraintWeightOverrides<HardSoftScore> constraintWeightOverrides = ConstraintWeightOverrides.none();
+
+    public TimeTable(List<TimeSlot> timeSlots, List<Room> rooms, List<Teacher> teachers, List<LunchGroup> lunchGroups,
+                     List<SchoolClass> schoolClasses, List<Lesson> lessons, HardSoftScore score) {
+        this.timeSlots = timeSlots;
+        this.rooms = rooms;
+        this.teachers = teachers;
+        this.lunchGroups = lunchGroups;
+        this.schoolClasses = schoolClasses;
+        this.lessons = lessons;
+        this.score = score;
+    }
+}
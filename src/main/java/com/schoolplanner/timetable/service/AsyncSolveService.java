@@ -1,50 +1,364 @@
 package com.schoolplanner.timetable.service;
 
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
 import com.schoolplanner.timetable.controller.dto.SolveJob;
+import com.schoolplanner.timetable.controller.dto.SolveOptions;
 import com.schoolplanner.timetable.controller.dto.SolveStatus;
 import com.schoolplanner.timetable.domain.TimeTable;
+import jakarta.annotation.PreDestroy;
 import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Runs solve jobs on a fixed number of solver slots. Jobs beyond the free slots wait as {@link SolveStatus#PENDING}
+ * in a bounded priority queue (higher priority first, then submission order); when the queue is full, submission
+ * fails with {@link RejectedExecutionException}. Each slot thread blocks on its job's solver until the final best
+ * solution, so the slot count is the number of solves that share the CPU at a time.
+ * <p>
+ * Finished jobs are kept for a limited time and up to a limited count, oldest evicted first, and a completed job's
+ * solution is spilled to a {@link SolutionStore} file and loaded again only when it is asked for, so the heap does
+ * not grow with the number of jobs served.
+ */
 @Service
-@Getter
 public class AsyncSolveService {
 
     private final TimeTableService timeTableService;
+    private final ConstraintProfileService constraintProfileService;
+    private final SolutionStore solutionStore;
+    private final SolveEventService solveEventService;
+    @Getter
     private final Map<String, SolveJob> jobs = new ConcurrentHashMap<>();
 
-    public AsyncSolveService(TimeTableService timeTableService) {
+    @Getter
+    private final int solverSlots;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    // Pabeigto darbu glabāšana: cik ilgi (0 - bez laika ierobežojuma) un cik daudz (0 - bez skaita ierobežojuma)
+    private final Duration retentionTtl;
+    private final int maxFinishedJobs;
+    private final ScheduledExecutorService retentionSweeper;
+    private final Set<SolveJob> runningJobs = ConcurrentHashMap.newKeySet();
+    private final AtomicLong submissionSequence = new AtomicLong();
+    // Vidējais risināšanas ilgums sākuma laika novērtējumam (eksponenciāli izlīdzināts pēc pabeigtajiem darbiem)
+    private volatile double averageSolveSeconds;
+
+    public AsyncSolveService(TimeTableService timeTableService,
+                             ConstraintProfileService constraintProfileService,
+                             SolutionStore solutionStore,
+                             SolveEventService solveEventService,
+                             @Value("${timetable.jobs.solver-slots:0}") int solverSlots,
+                             @Value("${timetable.jobs.queue-capacity:100}") int queueCapacity,
+                             @Value("${timetable.jobs.estimated-solve-seconds:60}") double estimatedSolveSeconds,
+                             @Value("${timetable.jobs.retention.ttl:24h}") Duration retentionTtl,
+                             @Value("${timetable.jobs.retention.max-finished:1000}") int maxFinishedJobs,
+                             @Value("${timetable.jobs.retention.sweep-interval:1m}") Duration sweepInterval) {
         this.timeTableService = timeTableService;
+        this.constraintProfileService = constraintProfileService;
+        this.solutionStore = solutionStore;
+        this.solveEventService = solveEventService;
+        // Pēc noklusējuma tik, cik Timefold SolverManager risina paralēli (puse kodolu), lai darbs, kas ir SOLVING,
+        // negaidītu SolverManager iekšējā rindā
+        this.solverSlots = solverSlots > 0 ? solverSlots : new SolverManagerConfig().resolveParallelSolverCount();
+        this.queueCapacity = queueCapacity;
+        this.averageSolveSeconds = estimatedSolveSeconds;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.solverSlots, this.solverSlots, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "solve-slot-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retentionTtl = retentionTtl;
+        this.maxFinishedJobs = maxFinishedJobs;
+        // Darbu skaita ierobežojumu pārbauda, kad darbs beidzas; laika ierobežojumu - arī periodiski
+        this.retentionSweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "solve-job-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!retentionTtl.isZero()) {
+            retentionSweeper.scheduleWithFixedDelay(this::evictFinishedJobs,
+                    sweepInterval.toMillis(), sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
     }
 
     public String submit(TimeTable problem) {
-        // Izveido jaunu procesu, kurš risinās problēmu
+        return submit(problem, SolveOptions.defaults());
+    }
+
+    // Nederīgi iestatījumi (piemēram, moveThreadCount vai bestScoreLimit) izmet izņēmumu pirms darba izveides,
+    // pilna rinda - RejectedExecutionException
+    public String submit(TimeTable problem, SolveOptions options) {
+        timeTableService.solverManager(options);
+        timeTableService.terminationConfig(options);
         String jobId = UUID.randomUUID().toString();
-        SolveJob job = new SolveJob(jobId);
-        jobs.put(jobId, job);
-        job.setStatus(SolveStatus.SOLVING);
-        CompletableFuture.runAsync(() -> {
-            try {
-                // Mēģina risināt problēmu
-                TimeTable solution = timeTableService.solve(problem);
-                // Pēc atrisināšanas uzstāda procesam jauno atrisinājumu
-                job.setSolution(solution);
-                job.setStatus(SolveStatus.COMPLETED);
-            } catch (Exception e) {
-                job.setError(e);
-                job.setStatus(SolveStatus.FAILED);
+        SolveJob job = new SolveJob(jobId, options.getPriority());
+        synchronized (executor) {
+            if (executor.getQueue().size() >= queueCapacity) {
+                throw new RejectedExecutionException("The solve queue is full (" + queueCapacity + " pending jobs), try again later.");
             }
-        });
-
+            jobs.put(jobId, job);
+            executor.execute(new QueuedSolve(job, submissionSequence.getAndIncrement(), problem, options));
+        }
         return jobId;
     }
 
     public SolveJob getJob(String jobId) {
         return jobs.get(jobId);
     }
+
+    // Pabeigta darba galīgais risinājums: no atmiņas vai, ja tas izlikts diskā, nolasīts no faila katram pieprasījumam.
+    // null, ja darbs vēl nav pabeigts vai pa to laiku izmests (arī risināšanas laikā izdzēstam darbam, kuram slota
+    // pavediens vēl uzstāda risinājumu).
+    public TimeTable solution(SolveJob job) {
+        synchronized (job) {
+            if (job.isEvicted()) {
+                return null;
+            }
+            TimeTable solution = job.getSolution();
+            if (solution != null) {
+                return solution;
+            }
+            Path solutionFile = job.getSolutionFile();
+            return solutionFile == null ? null : solutionStore.load(solutionFile);
+        }
+    }
+
+    // Galīgais risinājums vai, kamēr darbs tiek risināts, jaunākais labākais risinājums; izmestam darbam null
+    public TimeTable latestSolution(SolveJob job) {
+        TimeTable solution = solution(job);
+        return solution != null || job.isEvicted() ? solution : job.getBestSolution();
+    }
+
+    /**
+     * Stops a job: a solving job finishes early with its best solution so far and becomes {@link SolveStatus#COMPLETED}
+     * as usual, a pending job is taken off the queue as {@link SolveStatus#CANCELLED}. Returns false when the job has
+     * already finished.
+     */
+    public boolean stop(SolveJob job) {
+        synchronized (executor) {
+            for (Runnable queued : executor.getQueue()) {
+                if (((QueuedSolve) queued).job == job && executor.remove(queued)) {
+                    job.setStatus(SolveStatus.CANCELLED);
+                    job.setFinishedAt(Instant.now());
+                    solveEventService.jobFinished(job, null);
+                    return true;
+                }
+            }
+        }
+        if (job.getFinishedAt() != null) {
+            return false;
+        }
+        // Slota pavediens jau paņēmis darbu: tas beigsies ar līdz šim labāko risinājumu. Karodziņu solve redz arī tad,
+        // ja vēl nav sācis risināt.
+        job.setStopRequested(true);
+        timeTableService.terminateEarly(UUID.fromString(job.getJobId()));
+        return true;
+    }
+
+    // Aptur darbu, ja tas vēl nav pabeigts, un izmet to kopā ar risinājumu; risināma darba rezultāts netiek saglabāts
+    public void delete(SolveJob job) {
+        stop(job);
+        evict(job);
+    }
+
+    /**
+     * Estimates when a job starts solving; for a started job this is the actual start. For a pending job, the queued
+     * jobs ahead of it are placed on the earliest free slot, with the running jobs' remaining time and every queued job
+     * taking the (exponentially smoothed) solve duration of the completed jobs.
+     */
+    public Instant estimatedStartTime(SolveJob job) {
+        if (job.getStatus() != SolveStatus.PENDING) {
+            return job.getStartedAt();
+        }
+        Instant now = Instant.now();
+        Duration average = Duration.ofMillis((long) (averageSolveSeconds * 1000));
+        PriorityQueue<Instant> slotsFreeAt = new PriorityQueue<>();
+        for (SolveJob running : runningJobs) {
+            Instant expectedEnd = running.getStartedAt().plus(average);
+            slotsFreeAt.add(expectedEnd.isAfter(now) ? expectedEnd : now);
+        }
+        while (slotsFreeAt.size() < solverSlots) {
+            slotsFreeAt.add(now);
+        }
+        for (QueuedSolve queued : queueInOrder()) {
+            Instant start = slotsFreeAt.poll();
+            if (queued.job == job) {
+                return start;
+            }
+            slotsFreeAt.add(start.plus(average));
+        }
+        return now; // slots pavediens to jau paņēma no rindas
+    }
+
+    // Darbi, kas gaida pirms šī darba (0 - nākamais, kas tiks sākts); -1, ja darbs vairs negaida
+    public int queuePosition(SolveJob job) {
+        List<QueuedSolve> queue = queueInOrder();
+        for (int i = 0; i < queue.size(); i++) {
+            if (queue.get(i).job == job) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<QueuedSolve> queueInOrder() {
+        QueuedSolve[] queue = executor.getQueue().toArray(new QueuedSolve[0]);
+        Arrays.sort(queue);
+        return new ArrayList<>(Arrays.asList(queue));
+    }
+
+    private void run(SolveJob job, TimeTable problem, SolveOptions options) {
+        job.setStartedAt(Instant.now());
+        job.setStatus(SolveStatus.SOLVING);
+        runningJobs.add(job);
+        solveEventService.statusChanged(job);
+        TimeTable solution = null;
+        try {
+            // Mēģina risināt problēmu; katru jaunu labāko risinājumu nodod arī notikumu klausītājiem
+            solution = timeTableService.solve(UUID.fromString(job.getJobId()), problem, options, bestSolution -> {
+                job.setBestSolution(bestSolution);
+                solveEventService.bestSolutionChanged(job, bestSolution);
+            }, job::isStopRequested);
+            // Pēc atrisināšanas uzstāda procesam jauno atrisinājumu
+            job.setSolution(solution);
+            job.setStatus(SolveStatus.COMPLETED);
+            recordSolveDuration(Duration.between(job.getStartedAt(), Instant.now()));
+        } catch (Exception e) {
+            job.setError(e);
+            job.setStatus(SolveStatus.FAILED);
+            job.setBestSolution(null);
+        } finally {
+            job.setFinishedAt(Instant.now());
+            runningJobs.remove(job);
+        }
+        // Galīgais statuss un risinājums notikumu klausītājiem
+        solveEventService.jobFinished(job, solution);
+        if (solution == null) {
+            return;
+        }
+        spill(job, solution);
+        // Galīgā risinājuma ierobežojumu profils, lai pabeigtiem darbiem tas būtu arī metrikās. Notiek profilēšanas
+        // pavedienā, lai slots uzreiz paņemtu nākamo darbu; risinājumu tas nolasa pats (izdzēstam darbam - null).
+        constraintProfileService.profile(job, () -> latestSolution(job)).exceptionally(e -> {
+            System.out.println("Constraint profiling failed for job " + job.getJobId() + ": " + e.getMessage());
+            return null;
+        });
+    }
+
+    // Galīgo risinājumu pārceļ no atmiņas uz failu. Fails tiek uzstādīts pirms solution notīrīšanas, lai lasītājs
+    // vienmēr atrastu vienu no tiem.
+    private void spill(SolveJob job, TimeTable solution) {
+        if (solutionStore.isEnabled()) {
+            synchronized (job) {
+                if (job.isEvicted()) {
+                    job.setSolution(null);
+                    job.setBestSolution(null);
+                    return;
+                }
+                try {
+                    job.setSolutionFile(solutionStore.save(job.getJobId(), solution));
+                    job.setSolution(null);
+                } catch (Exception e) {
+                    System.out.println("Keeping solution of job " + job.getJobId() + " in memory: " + e.getMessage());
+                }
+            }
+        }
+        job.setBestSolution(null);
+    }
+
+    // Izmet pabeigtos darbus, kas vecāki par retentionTtl, un vecākos pāri maxFinishedJobs, ar to risinājuma failiem
+    // un metrikām. Vēl gaidošie un risināmie darbi paliek.
+    private synchronized void evictFinishedJobs() {
+        List<SolveJob> finished = new ArrayList<>();
+        for (SolveJob job : jobs.values()) {
+            if (job.getFinishedAt() != null) {
+                finished.add(job);
+            }
+        }
+        finished.sort(Comparator.comparing(SolveJob::getFinishedAt));
+        int excess = maxFinishedJobs > 0 ? finished.size() - maxFinishedJobs : 0;
+        Instant expiredBefore = retentionTtl.isZero() ? null : Instant.now().minus(retentionTtl);
+        for (int i = 0; i < finished.size(); i++) {
+            SolveJob job = finished.get(i);
+            if (i < excess || (expiredBefore != null && job.getFinishedAt().isBefore(expiredBefore))) {
+                evict(job);
+            }
+        }
+    }
+
+    private void evict(SolveJob job) {
+        synchronized (job) {
+            job.setEvicted(true);
+            jobs.remove(job.getJobId(), job);
+            solutionStore.delete(job.getSolutionFile());
+            constraintProfileService.remove(job);
+        }
+    }
+
+    private synchronized void recordSolveDuration(Duration duration) {
+        averageSolveSeconds = 0.7 * averageSolveSeconds + 0.3 * (duration.toMillis() / 1000.0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        retentionSweeper.shutdownNow();
+    }
+
+    // Rindas elements: augstāka prioritāte pirmā, vienādai prioritātei - iesniegšanas secība
+    private final class QueuedSolve implements Runnable, Comparable<QueuedSolve> {
+
+        private static final Comparator<QueuedSolve> ORDER = Comparator
+                .comparingInt((QueuedSolve queued) -> queued.job.getPriority()).reversed()
+                .thenComparingLong(queued -> queued.sequence);
+
+        private final SolveJob job;
+        private final long sequence;
+        private final TimeTable problem;
+        private final SolveOptions options;
+
+        private QueuedSolve(SolveJob job, long sequence, TimeTable problem, SolveOptions options) {
+            this.job = job;
+            this.sequence = sequence;
+            this.problem = problem;
+            this.options = options;
+        }
+
+        @Override
+        public void run() {
+            try {
+                AsyncSolveService.this.run(job, problem, options);
+            } finally {
+                evictFinishedJobs();
+            }
+        }
+
+        @Override
+        public int compareTo(QueuedSolve other) {
+            return ORDER.compare(this, other);
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package com.schoolplanner.timetable.service;
+
+import com.schoolplanner.timetable.controller.dto.ConstraintProfile;
+import com.schoolplanner.timetable.controller.dto.SolveJob;
+import com.schoolplanner.timetable.domain.TimeTable;
+import com.schoolplanner.timetable.solver.ConstraintProfiler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.search.Search;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-constraint evaluation cost and match counts for solve jobs.
+ * Each call profiles the job's latest best (or final) solution and replaces the job's previous profile with the
+ * per-move evaluation cost of that pass, which is also published as Micrometer gauges tagged with the job id and
+ * constraint name.
+ * <p>
+ * Profiling replays {@code timetable.profile.move-count} moves per constraint, so it runs on one background thread
+ * instead of a solver slot or an HTTP thread, and a request for a job that is already being profiled gets the result
+ * of that run instead of starting another one.
+ */
+@Service
+public class ConstraintProfileService {
+
+    private final MeterRegistry meterRegistry;
+    private final ConstraintProfiler profiler;
+    private final ExecutorService executor;
+    // Darbi, kuru profilēšana gaida vai notiek (jobId -> rezultāts)
+    private final Map<String, CompletableFuture<List<ConstraintProfile>>> profilesInProgress = new ConcurrentHashMap<>();
+
+    public ConstraintProfileService(MeterRegistry meterRegistry,
+                                    @Value("${timetable.profile.move-count:2000}") int moveCount) {
+        this.meterRegistry = meterRegistry;
+        this.profiler = new ConstraintProfiler(moveCount);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "constraint-profiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Profiles the job's solution from the supplier (see {@link AsyncSolveService#latestSolution}) in the background.
+     * The supplier is called on the profiling thread, so loading a spilled solution does not block the caller either.
+     * Completes with null when the job has no solution yet or was evicted in the meantime.
+     */
+    public CompletableFuture<List<ConstraintProfile>> profile(SolveJob job, Supplier<TimeTable> solution) {
+        synchronized (job) {
+            if (job.isEvicted()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<List<ConstraintProfile>> inProgress = profilesInProgress.get(job.getJobId());
+            if (inProgress != null) {
+                return inProgress;
+            }
+            CompletableFuture<List<ConstraintProfile>> profile = new CompletableFuture<>();
+            profilesInProgress.put(job.getJobId(), profile);
+            executor.execute(() -> run(job, solution, profile));
+            return profile;
+        }
+    }
+
+    // Mērījums notiek bez darba slēdzenes; rezultātu saglabā un metrikas reģistrē tikai tad, ja darbs pa to laiku nav
+    // izmests (evict iestata SolveJob.evicted un izsauc remove ar to pašu slēdzeni)
+    private void run(SolveJob job, Supplier<TimeTable> solutionSupplier, CompletableFuture<List<ConstraintProfile>> profile) {
+        try {
+            TimeTable solution = job.isEvicted() ? null : solutionSupplier.get();
+            List<ConstraintProfiler.Sample> samples = solution == null ? null : profiler.profile(solution);
+            List<ConstraintProfile> result = null;
+            synchronized (job) {
+                if (profilesInProgress.remove(job.getJobId(), profile) && samples != null && !job.isEvicted()) {
+                    for (ConstraintProfiler.Sample sample : samples) {
+                        job.getConstraintProfiles()
+                                .computeIfAbsent(sample.getConstraintName(), name -> register(job.getJobId(), new ConstraintProfile(name)))
+                                .update(sample.getMatchCount(), sample.getScore().toString(), sample.getMoveCount(), sample.getNanos());
+                    }
+                    result = new ArrayList<>(job.getConstraintProfiles().values());
+                }
+            }
+            profile.complete(result);
+        } catch (Exception e) {
+            profilesInProgress.remove(job.getJobId(), profile);
+            profile.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Removes the job's meters when the job is evicted; a profiling run still in progress is not added.
+     */
+    public void remove(SolveJob job) {
+        synchronized (job) {
+            profilesInProgress.remove(job.getJobId());
+            Search.in(meterRegistry)
+                    .name(name -> name.startsWith("timetable.constraint."))
+                    .tag("jobId", job.getJobId())
+                    .meters()
+                    .forEach(meterRegistry::remove);
+        }
+    }
+
+    private ConstraintProfile register(String jobId, ConstraintProfile profile) {
+        Tags tags = Tags.of("jobId", jobId, "constraint", profile.getConstraintName());
+        TimeGauge.builder("timetable.constraint.evaluation", profile, TimeUnit.MICROSECONDS, ConstraintProfile::getAverageEvaluationMicros)
+                .description("Score recalculation time per move with only this constraint enabled, latest profile")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("timetable.constraint.matches", profile, ConstraintProfile::getMatchCount)
+                .description("Constraint matches in the latest profiled solution")
+                .tags(tags)
+                .register(meterRegistry);
+        return profile;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
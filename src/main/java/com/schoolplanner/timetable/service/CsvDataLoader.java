@@ -59,7 +59,7 @@ public class CsvDataLoader {
         // Load lunch groups from CSV (needs time slots)
         List<LunchGroup> lunchGroups = loadLunchGroupsFromCsv(lunchGroupsCsvPath, timeSlots);
 
-        return new TimeTable(
+        return ProblemIndexer.index(new TimeTable(
                 timeSlots,
                 rooms,
                 teachers,
@@ -67,7 +67,7 @@ public class CsvDataLoader {
                 schoolClasses,
                 lessons,
                 HardSoftScore.ZERO
-        );
+        ));
     }
 
     /**
@@ -107,7 +107,7 @@ public class CsvDataLoader {
         // Load lunch groups from uploaded CSV (needs time slots)
         List<LunchGroup> lunchGroups = loadLunchGroupsFromUploadedCsv(lunchGroupsCsv, timeSlots);
 
-        return new TimeTable(
+        return ProblemIndexer.index(new TimeTable(
                 timeSlots,
                 rooms,
                 teachers,
@@ -115,7 +115,7 @@ public class CsvDataLoader {
                 schoolClasses,
                 lessons,
                 HardSoftScore.ZERO
-        );
+        ));
     }
 
     public static List<Room> loadRoomsFromCsv(String resourcePath) {
@@ -215,13 +215,13 @@ public class CsvDataLoader {
                 teacher.setQualifiedUnits(qualifiedUnits);
 
                 // Parse work time slots
-                Set<TimeSlot> workTimeSlots = parseWorkTimeSlots(
+                long[] availability = parseWorkTimeSlots(
                         workDaysStr,
                         workStartTimeStr,
                         workEndTimeStr,
                         allTimeSlots
                 );
-                teacher.setWorkTimeSlots(workTimeSlots);
+                teacher.setAvailability(availability, allTimeSlots);
 
                 teachers.add(teacher);
             }
@@ -459,13 +459,16 @@ public class CsvDataLoader {
         return result;
     }
 
-    private static Set<TimeSlot> parseWorkTimeSlots(
+    /**
+     * Returns the teacher's availability as a bit set over {@link TimeSlot#getOrdinal()}.
+     */
+    private static long[] parseWorkTimeSlots(
             String workDaysStr,
             String workStartTimeStr,
             String workEndTimeStr,
             List<TimeSlot> allTimeSlots
     ) {
-        Set<TimeSlot> result = new HashSet<>();
+        long[] result = new long[(allTimeSlots.size() + Long.SIZE - 1) / Long.SIZE];
 
         Set<SchoolDay> workDays = new HashSet<>();
         if (workDaysStr != null && !workDaysStr.isEmpty()) {
@@ -486,7 +489,7 @@ public class CsvDataLoader {
             if (workDays.contains(slot.getSchoolDay()) &&
                     !slot.getStartTime().isBefore(workStartTime) &&
                     !slot.getEndTime().isAfter(workEndTime)) {
-                result.add(slot);
+                result[slot.getOrdinal() >>> 6] |= 1L << slot.getOrdinal();
             }
         }
 
@@ -513,9 +516,11 @@ public class CsvDataLoader {
                 LocalTime.of(16, 0),
         };
 
-        for (SchoolDay day : days) {
-            for (LocalTime start : startTimes) {
-                slots.add(new TimeSlot(++id, day, start, start.plusMinutes(40)));
+        for (int dayIndex = 0; dayIndex < days.length; dayIndex++) {
+            for (int periodIndex = 0; periodIndex < startTimes.length; periodIndex++) {
+                LocalTime start = startTimes[periodIndex];
+                slots.add(new TimeSlot(++id, days[dayIndex], start, start.plusMinutes(40),
+                        dayIndex, periodIndex, slots.size()));
             }
         }
         return slots;
@@ -624,21 +629,22 @@ public class CsvDataLoader {
                         unitCache
                 );
 
-                Set<TimeSlot> availableTimeSlots = parseWorkTimeSlots(
+                long[] availability = parseWorkTimeSlots(
                         workDaysStr,
                         workStartTimeStr,
                         workEndTimeStr,
                         allTimeSlots
                 );
 
-                teachers.add(new Teacher(
+                Teacher teacher = new Teacher(
                         id,
                         firstName,
                         lastName,
                         homeRoom,
-                        qualifiedTeachingUnits,
-                        availableTimeSlots
-                ));
+                        qualifiedTeachingUnits
+                );
+                teacher.setAvailability(availability, allTimeSlots);
+                teachers.add(teacher);
             }
         } catch (IOException e) {
             throw new RuntimeException("Failed to read uploaded teachers CSV", e);
@@ -111,7 +111,7 @@ public class GenerateFromCsv {
 
         List<Teacher> teachers = generateGenericTeachers(timeSlots, rooms, allTeachingUnits);
 
-        return new TimeTable(
+        return ProblemIndexer.index(new TimeTable(
                 timeSlots,
                 rooms,
                 teachers,
@@ -119,7 +119,7 @@ public class GenerateFromCsv {
                 schoolClasses,
                 lessons,
                 HardSoftScore.ZERO
-        );
+        ));
     }
 
     private static RoomType getRoomTypeForSubject(Subject s) {
@@ -150,9 +150,11 @@ public class GenerateFromCsv {
                 LocalTime.of(16, 0),
         };
 
-        for (SchoolDay day : days) {
-            for (LocalTime start : startTimes) {
-                slots.add(new TimeSlot(++id, day, start, start.plusMinutes(40)));
+        for (int dayIndex = 0; dayIndex < days.length; dayIndex++) {
+            for (int periodIndex = 0; periodIndex < startTimes.length; periodIndex++) {
+                LocalTime start = startTimes[periodIndex];
+                slots.add(new TimeSlot(++id, days[dayIndex], start, start.plusMinutes(40),
+                        dayIndex, periodIndex, slots.size()));
             }
         }
         return slots;
@@ -226,7 +228,7 @@ public class GenerateFromCsv {
             t.setId("T" + i);
             t.setFirstName("Teacher");
             t.setLastName(String.valueOf(i));
-            t.setWorkTimeSlots(new HashSet<>(allSlots));
+            t.setAvailability(Teacher.availabilityBits(allSlots), allSlots);
             t.setQualifiedUnits(new HashSet<>(allUnits));
             t.setHomeRoom(allRooms.get(0));
 
@@ -0,0 +1,34 @@
+package com.schoolplanner.timetable.service;
+
+import com.schoolplanner.timetable.solver.move.CountingMoveFilter;
+import com.schoolplanner.timetable.solver.move.LunchSwapFilter;
+import com.schoolplanner.timetable.solver.move.QualificationSwapFilter;
+import com.schoolplanner.timetable.solver.move.RoomTypeSwapFilter;
+import com.schoolplanner.timetable.solver.move.SameAssignmentSwapFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes how many moves each {@link CountingMoveFilter} has dropped before scoring, summed over all solver runs,
+ * as the Micrometer counter {@code timetable.move.filtered} tagged with the filter name.
+ */
+@Component
+public class MoveFilterMetrics implements MeterBinder {
+
+    private static final List<Class<? extends CountingMoveFilter<?>>> FILTERS = List.of(
+            SameAssignmentSwapFilter.class, RoomTypeSwapFilter.class, LunchSwapFilter.class, QualificationSwapFilter.class);
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Class<? extends CountingMoveFilter<?>> filterClass : FILTERS) {
+            FunctionCounter.builder("timetable.move.filtered", filterClass, CountingMoveFilter::droppedCount)
+                    .description("Moves dropped by the selection filter before score calculation")
+                    .tag("filter", filterClass.getSimpleName())
+                    .register(registry);
+        }
+    }
+}
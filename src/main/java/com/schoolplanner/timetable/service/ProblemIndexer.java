@@ -0,0 +1,387 @@
+package com.schoolplanner.timetable.service;
+
+import com.schoolplanner.timetable.domain.*;
+
+import java.util.*;
+
+/**
+ * Resolves lookups between problem facts once, after a problem is loaded,
+ * so that constraints do not have to search for them on every move.
+ */
+public final class ProblemIndexer {
+
+    private ProblemIndexer() {
+    }
+
+    public static TimeTable index(TimeTable problem) {
+        List<TimeSlot> timeSlots = problem.getTimeSlots() == null ? List.of() : problem.getTimeSlots();
+        List<LunchGroup> lunchGroups = problem.getLunchGroups() == null ? List.of() : problem.getLunchGroups();
+
+        // Problems built by hand or submitted as JSON may come without slot indices
+        if (!timeSlots.stream().allMatch(TimeSlot::isIndexed)) {
+            indexTimeSlots(timeSlots);
+            Map<Long, TimeSlot> slotById = new HashMap<>();
+            for (TimeSlot slot : timeSlots) {
+                slotById.put(slot.getId(), slot);
+            }
+            for (LunchGroup lunchGroup : lunchGroups) {
+                lunchGroup.setLunchTimeSlots(canonicalSlots(lunchGroup.getLunchTimeSlots(), slotById));
+            }
+            // Availability bits are keyed by ordinal, so they have to be rebuilt once ordinals exist
+            if (problem.getTeachers() != null) {
+                for (Teacher teacher : problem.getTeachers()) {
+                    List<TimeSlot> workTimeSlots = canonicalSlots(new ArrayList<>(teacher.getWorkTimeSlots()), slotById);
+                    teacher.setWorkTimeSlots(new LinkedHashSet<>(workTimeSlots));
+                }
+            }
+        } else {
+            linkTimeSlots(timeSlots);
+        }
+
+        resolveLessonFacts(problem);
+        internTeachingUnits(problem);
+        mergeConsecutiveLessons(problem);
+
+        if (problem.getSchoolClasses() != null) {
+            for (SchoolClass schoolClass : problem.getSchoolClasses()) {
+                assignLunchGroup(schoolClass, lunchGroups);
+            }
+        }
+        // Lessons deserialized from JSON may carry their own copies of the school class
+        if (problem.getLessons() != null) {
+            for (Lesson lesson : problem.getLessons()) {
+                if (lesson.getSchoolClass() != null && lesson.getSchoolClass().getLunchGroup() == null) {
+                    assignLunchGroup(lesson.getSchoolClass(), lunchGroups);
+                }
+            }
+        }
+        buildClassUnitAssignments(problem);
+        countValueStrengths(problem);
+        // Time slot ranges depend on the lunch groups assigned above
+        assignValueRanges(problem);
+        return problem;
+    }
+
+    /**
+     * Assigns dense day, period and week indices, ordering slots by day and start time.
+     * Works for any number of periods per day.
+     */
+    public static void indexTimeSlots(List<TimeSlot> timeSlots) {
+        List<TimeSlot> sorted = new ArrayList<>(timeSlots);
+        sorted.sort(Comparator.comparing(TimeSlot::getSchoolDay).thenComparing(TimeSlot::getStartTime));
+
+        int dayIndex = -1;
+        int periodIndex = 0;
+        SchoolDay currentDay = null;
+        for (int ordinal = 0; ordinal < sorted.size(); ordinal++) {
+            TimeSlot slot = sorted.get(ordinal);
+            if (slot.getSchoolDay() != currentDay) {
+                currentDay = slot.getSchoolDay();
+                dayIndex++;
+                periodIndex = 0;
+            }
+            slot.setDayIndex(dayIndex);
+            slot.setPeriodIndex(periodIndex++);
+            slot.setOrdinal(ordinal);
+        }
+        linkTimeSlots(sorted);
+    }
+
+    // Links each slot to the next period of the same day, see TimeSlot.nextInDay
+    private static void linkTimeSlots(List<TimeSlot> timeSlots) {
+        List<TimeSlot> sorted = new ArrayList<>(timeSlots);
+        sorted.sort(Comparator.comparingInt(TimeSlot::getOrdinal));
+        for (int i = 0; i < sorted.size(); i++) {
+            TimeSlot slot = sorted.get(i);
+            TimeSlot next = i + 1 < sorted.size() ? sorted.get(i + 1) : null;
+            slot.setNextInDay(next != null && next.getDayIndex() == slot.getDayIndex() ? next : null);
+        }
+    }
+
+    /**
+     * Merges all lessons of a school class and a teaching unit whose subject must be consecutive into one lesson
+     * that spans that many periods, so the solver moves them as one block instead of pulling split lessons together.
+     * The first lesson of each group is kept. Already merged lessons keep their periods, so indexing a solution
+     * again leaves it as it is.
+     */
+    private static void mergeConsecutiveLessons(TimeTable problem) {
+        if (problem.getLessons() == null) return;
+        Map<SchoolClass, Map<TeachingUnit, Lesson>> blocks = new IdentityHashMap<>();
+        List<Lesson> lessons = new ArrayList<>(problem.getLessons().size());
+        for (Lesson lesson : problem.getLessons()) {
+            TeachingUnit unit = lesson.getTeachingUnit();
+            if (unit == null || !unit.getSubject().isMustBeConsecutive()) {
+                lessons.add(lesson);
+                continue;
+            }
+            Lesson block = blocks.computeIfAbsent(lesson.getSchoolClass(), schoolClass -> new IdentityHashMap<>())
+                    .putIfAbsent(unit, lesson);
+            if (block == null) {
+                lessons.add(lesson);
+            } else {
+                block.setPeriods(block.getPeriods() + lesson.getPeriods());
+            }
+        }
+        problem.setLessons(lessons);
+    }
+
+    // JSON gives every lesson its own copy of the slot, teacher, room and class; point them back at the problem facts
+    private static void resolveLessonFacts(TimeTable problem) {
+        if (problem.getLessons() == null) return;
+        Map<Long, TimeSlot> slotById = new HashMap<>();
+        if (problem.getTimeSlots() != null) {
+            for (TimeSlot slot : problem.getTimeSlots()) {
+                slotById.put(slot.getId(), slot);
+            }
+        }
+        Map<String, Teacher> teacherById = new HashMap<>();
+        if (problem.getTeachers() != null) {
+            for (Teacher teacher : problem.getTeachers()) {
+                teacherById.put(teacher.getId(), teacher);
+            }
+        }
+        Map<String, Room> roomById = new HashMap<>();
+        if (problem.getRooms() != null) {
+            for (Room room : problem.getRooms()) {
+                roomById.put(room.getId(), room);
+            }
+        }
+        Map<Long, SchoolClass> schoolClassById = new HashMap<>();
+        if (problem.getSchoolClasses() != null) {
+            for (SchoolClass schoolClass : problem.getSchoolClasses()) {
+                schoolClassById.put(schoolClass.getId(), schoolClass);
+            }
+        }
+        for (Lesson lesson : problem.getLessons()) {
+            if (lesson.getTimeSlot() != null) {
+                lesson.setTimeSlot(slotById.getOrDefault(lesson.getTimeSlot().getId(), lesson.getTimeSlot()));
+            }
+            if (lesson.getTeacher() != null) {
+                lesson.setTeacher(teacherById.getOrDefault(lesson.getTeacher().getId(), lesson.getTeacher()));
+            }
+            if (lesson.getRoom() != null) {
+                lesson.setRoom(roomById.getOrDefault(lesson.getRoom().getId(), lesson.getRoom()));
+            }
+            if (lesson.getSchoolClass() != null) {
+                lesson.setSchoolClass(schoolClassById.getOrDefault(lesson.getSchoolClass().getId(), lesson.getSchoolClass()));
+            }
+        }
+    }
+
+    /**
+     * Assigns dense ordinals to teaching units in iteration order.
+     * Teacher qualification bits are keyed by these ordinals.
+     */
+    public static void indexTeachingUnits(Collection<TeachingUnit> teachingUnits) {
+        int ordinal = 0;
+        for (TeachingUnit unit : teachingUnits) {
+            unit.setOrdinal(ordinal++);
+        }
+    }
+
+    // Keeps one instance per unit id, so lessons and qualifications share the same ordinal
+    private static void internTeachingUnits(TimeTable problem) {
+        List<Lesson> lessons = problem.getLessons() == null ? List.of() : problem.getLessons();
+        List<Teacher> teachers = problem.getTeachers() == null ? List.of() : problem.getTeachers();
+
+        Map<Long, TeachingUnit> unitById = new LinkedHashMap<>();
+        for (Lesson lesson : lessons) {
+            if (lesson.getTeachingUnit() != null) {
+                unitById.putIfAbsent(lesson.getTeachingUnit().getId(), lesson.getTeachingUnit());
+            }
+        }
+        for (Teacher teacher : teachers) {
+            if (teacher.getQualifiedUnits() != null) {
+                for (TeachingUnit unit : teacher.getQualifiedUnits()) {
+                    unitById.putIfAbsent(unit.getId(), unit);
+                }
+            }
+        }
+        if (!unitById.values().stream().allMatch(TeachingUnit::isIndexed)) {
+            indexTeachingUnits(unitById.values());
+        }
+
+        for (Lesson lesson : lessons) {
+            if (lesson.getTeachingUnit() != null) {
+                lesson.setTeachingUnit(unitById.get(lesson.getTeachingUnit().getId()));
+            }
+        }
+        for (Teacher teacher : teachers) {
+            if (teacher.getQualifiedUnits() != null) {
+                Set<TeachingUnit> qualifiedUnits = new HashSet<>();
+                for (TeachingUnit unit : teacher.getQualifiedUnits()) {
+                    qualifiedUnits.add(unitById.get(unit.getId()));
+                }
+                teacher.setQualifiedUnits(qualifiedUnits);
+            }
+        }
+    }
+
+    /**
+     * Groups lessons into one {@link ClassUnitAssignment} per school class and teaching unit, which owns the teacher
+     * of all its lessons. The initial teacher is the one the first lesson already has (from JSON or a previous solution),
+     * and is copied to the other lessons so that the lessons' shadow teacher is consistent before solving.
+     */
+    private static void buildClassUnitAssignments(TimeTable problem) {
+        List<ClassUnitAssignment> assignments = new ArrayList<>();
+        problem.setClassUnitAssignments(assignments);
+        if (problem.getLessons() == null) return;
+
+        Map<SchoolClass, Map<TeachingUnit, ClassUnitAssignment>> assignmentsByClass = new IdentityHashMap<>();
+        for (Lesson lesson : problem.getLessons()) {
+            ClassUnitAssignment assignment = assignmentsByClass
+                    .computeIfAbsent(lesson.getSchoolClass(), schoolClass -> new IdentityHashMap<>())
+                    .computeIfAbsent(lesson.getTeachingUnit(), unit -> {
+                        ClassUnitAssignment created = new ClassUnitAssignment((long) assignments.size(), lesson.getSchoolClass(), unit);
+                        assignments.add(created);
+                        return created;
+                    });
+            if (assignment.getTeacher() == null) {
+                assignment.setTeacher(lesson.getTeacher());
+            }
+            assignment.getLessons().add(lesson);
+            lesson.setAssignment(assignment);
+        }
+        for (ClassUnitAssignment assignment : assignments) {
+            assignment.assignTeacher(assignment.getTeacher());
+        }
+    }
+
+    /**
+     * Counts the facts behind the time slot and room strength comparators: the teachers working in each slot
+     * and the teachers whose home room each room is. Home rooms are matched by id, as JSON input may carry copies.
+     */
+    private static void countValueStrengths(TimeTable problem) {
+        List<Teacher> teachers = problem.getTeachers() == null ? List.of() : problem.getTeachers();
+        if (problem.getTimeSlots() != null) {
+            for (TimeSlot slot : problem.getTimeSlots()) {
+                int count = 0;
+                for (Teacher teacher : teachers) {
+                    if (teacher.isAvailable(slot)) {
+                        count++;
+                    }
+                }
+                slot.setAvailableTeacherCount(count);
+            }
+        }
+        if (problem.getRooms() != null) {
+            Map<String, Integer> homeRoomCounts = new HashMap<>();
+            for (Teacher teacher : teachers) {
+                if (teacher.getHomeRoom() != null) {
+                    homeRoomCounts.merge(teacher.getHomeRoom().getId(), 1, Integer::sum);
+                }
+            }
+            for (Room room : problem.getRooms()) {
+                room.setHomeRoomTeacherCount(homeRoomCounts.getOrDefault(room.getId(), 0));
+            }
+        }
+    }
+
+    /**
+     * Gives every lesson the rooms of its unit's room type and every class unit assignment the teachers qualified
+     * for its unit, so that change and swap moves never propose a room or teacher that roomTypeMatch/qualifiedUnitMatch
+     * would reject. Lessons of the same unit share one list. When no room or teacher fits, the full list is kept
+     * and the hard constraint reports the problem instead of leaving the variable unassigned.
+     * Time slots are restricted the same way, see {@link #timeSlotRange}.
+     */
+    private static void assignValueRanges(TimeTable problem) {
+        if (problem.getLessons() == null) return;
+        List<TimeSlot> timeSlots = problem.getTimeSlots() == null ? List.of() : problem.getTimeSlots();
+        List<Room> rooms = problem.getRooms() == null ? List.of() : problem.getRooms();
+        List<Teacher> teachers = problem.getTeachers() == null ? List.of() : problem.getTeachers();
+
+        Map<TeachingUnit, List<Teacher>> teachersByUnit = new IdentityHashMap<>();
+        for (ClassUnitAssignment assignment : problem.getClassUnitAssignments()) {
+            TeachingUnit unit = assignment.getTeachingUnit();
+            if (unit == null) {
+                assignment.setTeacherRange(teachers);
+                continue;
+            }
+            assignment.setTeacherRange(teachersByUnit.computeIfAbsent(unit, teachingUnit -> {
+                List<Teacher> qualified = teachers.stream().filter(teacher -> teacher.isQualifiedFor(teachingUnit)).toList();
+                if (qualified.isEmpty()) {
+                    System.out.println("Warning: no teacher is qualified for " + teachingUnit.getSubject()
+                            + " grade " + teachingUnit.getGrade() + ", its lessons may use any teacher");
+                    return teachers;
+                }
+                return qualified;
+            }));
+        }
+
+        Map<RoomType, List<Room>> roomsByType = new EnumMap<>(RoomType.class);
+        // Lunch group -> only qualified teacher (null if several) -> block length -> slots
+        Map<LunchGroup, Map<Teacher, Map<Integer, List<TimeSlot>>>> slotsByLunchGroup = new IdentityHashMap<>();
+        for (Lesson lesson : problem.getLessons()) {
+            TeachingUnit unit = lesson.getTeachingUnit();
+            if (unit == null) {
+                lesson.setRoomRange(rooms);
+                lesson.setTimeSlotRange(timeSlots);
+                continue;
+            }
+            lesson.setRoomRange(roomsByType.computeIfAbsent(unit.getRoomType(), roomType -> {
+                List<Room> matching = rooms.stream().filter(room -> room.getRoomType() == roomType).toList();
+                if (matching.isEmpty()) {
+                    System.out.println("Warning: no room of type " + roomType + ", lessons of this type may use any room");
+                    return rooms;
+                }
+                return matching;
+            }));
+
+            LunchGroup lunchGroup = lesson.getSchoolClass() == null ? null : lesson.getSchoolClass().getLunchGroup();
+            List<Teacher> teacherRange = lesson.getAssignment().getTeacherRange();
+            Teacher onlyTeacher = teacherRange.size() == 1 ? teacherRange.get(0) : null;
+            lesson.setTimeSlotRange(slotsByLunchGroup
+                    .computeIfAbsent(lunchGroup, group -> new IdentityHashMap<>())
+                    .computeIfAbsent(onlyTeacher, teacher -> new HashMap<>())
+                    .computeIfAbsent(lesson.getPeriods(), periods -> timeSlotRange(timeSlots, lunchGroup, onlyTeacher, periods)));
+        }
+    }
+
+    /**
+     * Keeps the start slots from which the lesson's periods fit into the day without touching the lunch slots
+     * of the class's lunch group and, when only one teacher can teach the lesson, the slots outside that teacher's
+     * work time. studentLunchBreak, teacherAvailability and subjectMustBeConsecutive stay as a safety net
+     * for lessons that keep the full list because nothing else is left.
+     */
+    private static List<TimeSlot> timeSlotRange(List<TimeSlot> timeSlots, LunchGroup lunchGroup, Teacher onlyTeacher,
+                                                int periods) {
+        List<TimeSlot> range = timeSlots.stream()
+                .filter(start -> {
+                    TimeSlot slot = start;
+                    for (int i = 0; i < periods; i++, slot = slot.getNextInDay()) {
+                        if (slot == null
+                                || (lunchGroup != null && lunchGroup.isLunchSlot(slot))
+                                || (onlyTeacher != null && !onlyTeacher.isAvailable(slot))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                })
+                .toList();
+        if (range.isEmpty()) {
+            System.out.println("Warning: no time slot outside lunch and teacher unavailability"
+                    + (onlyTeacher == null ? "" : " for teacher " + onlyTeacher.getId()) + ", lessons may use any time slot");
+            return timeSlots;
+        }
+        return range;
+    }
+
+    private static List<TimeSlot> canonicalSlots(List<TimeSlot> slots, Map<Long, TimeSlot> slotById) {
+        if (slots == null) return null;
+        List<TimeSlot> result = new ArrayList<>(slots.size());
+        for (TimeSlot slot : slots) {
+            result.add(slotById.getOrDefault(slot.getId(), slot));
+        }
+        return result;
+    }
+
+    private static void assignLunchGroup(SchoolClass schoolClass, List<LunchGroup> lunchGroups) {
+        for (LunchGroup lunchGroup : lunchGroups) {
+            if (lunchGroup.appliesToGrade(schoolClass.getGrade())) {
+                schoolClass.setLunchGroup(lunchGroup);
+                return;
+            }
+        }
+        schoolClass.setLunchGroup(null);
+    }
+}
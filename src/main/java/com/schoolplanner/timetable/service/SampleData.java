@@ -12,11 +12,14 @@ public class SampleData {
         // 4 time slots per day, 5 days = 20 slots total
         List<TimeSlot> allTimeSlots = new ArrayList<>();
         long slotId = 1L;
-        for (SchoolDay day : List.of(SchoolDay.MONDAY, SchoolDay.TUESDAY, SchoolDay.WEDNESDAY, SchoolDay.THURSDAY, SchoolDay.FRIDAY)) {
-            allTimeSlots.add(new TimeSlot(slotId++, day, LocalTime.of(9, 0), LocalTime.of(9, 45)));
-            allTimeSlots.add(new TimeSlot(slotId++, day, LocalTime.of(10, 0), LocalTime.of(10, 45)));
-            allTimeSlots.add(new TimeSlot(slotId++, day, LocalTime.of(11, 0), LocalTime.of(11, 45)));
-            allTimeSlots.add(new TimeSlot(slotId++, day, LocalTime.of(12, 0), LocalTime.of(12, 45)));
+        List<SchoolDay> days = List.of(SchoolDay.MONDAY, SchoolDay.TUESDAY, SchoolDay.WEDNESDAY, SchoolDay.THURSDAY, SchoolDay.FRIDAY);
+        LocalTime[] startTimes = {LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(11, 0), LocalTime.of(12, 0)};
+        for (int dayIndex = 0; dayIndex < days.size(); dayIndex++) {
+            for (int periodIndex = 0; periodIndex < startTimes.length; periodIndex++) {
+                LocalTime start = startTimes[periodIndex];
+                allTimeSlots.add(new TimeSlot(slotId++, days.get(dayIndex), start, start.plusMinutes(45),
+                        dayIndex, periodIndex, allTimeSlots.size()));
+            }
         }
 
         // 3 rooms - one of each type needed
@@ -89,7 +92,7 @@ public class SampleData {
         lessons.add(new Lesson(lessonId++, chem8, class8B));
         lessons.add(new Lesson(lessonId++, sport8, class8B));
 
-        return new TimeTable(
+        return ProblemIndexer.index(new TimeTable(
                 allTimeSlots,
                 allRooms,
                 allTeachers,
@@ -97,6 +100,6 @@ public class SampleData {
                 allClasses,
                 lessons,
                 HardSoftScore.ZERO
-        );
+        ));
     }
 }
\ No newline at end of file
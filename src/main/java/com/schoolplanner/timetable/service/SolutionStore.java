@@ -0,0 +1,86 @@
+package com.schoolplanner.timetable.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolplanner.timetable.domain.TimeTable;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps finished solutions on disk instead of the heap, one gzip-compressed JSON file per job in the same format as
+ * the JSON problem endpoint. A loaded solution goes through {@link ProblemIndexer} again, so its lessons point at
+ * shared problem facts just like a solved one. Files left by a previous run are deleted on startup.
+ */
+@Component
+public class SolutionStore {
+
+    private static final String FILE_SUFFIX = ".solution.json.gz";
+
+    private final ObjectMapper objectMapper;
+    @Getter
+    private final boolean enabled;
+    private final Path directory;
+
+    public SolutionStore(ObjectMapper objectMapper,
+                         @Value("${timetable.jobs.spill-solutions:true}") boolean enabled,
+                         @Value("${timetable.jobs.spill-directory:}") String directory) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = directory == null || directory.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "timetable-solutions")
+                : Path.of(directory);
+        if (enabled) {
+            try {
+                Files.createDirectories(this.directory);
+                deleteLeftoverFiles();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot use solution spill directory " + this.directory, e);
+            }
+        }
+    }
+
+    public Path save(String jobId, TimeTable solution) {
+        Path file = directory.resolve(jobId + FILE_SUFFIX);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            objectMapper.writeValue(out, solution);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write solution file " + file, e);
+        }
+        return file;
+    }
+
+    public TimeTable load(Path file) {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return ProblemIndexer.index(objectMapper.readValue(in, TimeTable.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read solution file " + file, e);
+        }
+    }
+
+    public void delete(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("Cannot delete solution file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void deleteLeftoverFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                delete(file);
+            }
+        }
+    }
+}
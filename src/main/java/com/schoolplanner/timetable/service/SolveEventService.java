@@ -0,0 +1,193 @@
+package com.schoolplanner.timetable.service;
+
+import com.schoolplanner.timetable.controller.dto.SolutionSnapshot;
+import com.schoolplanner.timetable.controller.dto.SolveJob;
+import com.schoolplanner.timetable.controller.dto.SolveStatus;
+import com.schoolplanner.timetable.domain.TimeTable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-Sent Events for solve jobs: a {@code status} event on every status change, a {@code score} event for every
+ * new best solution and a {@code solution} event with a {@link SolutionSnapshot} at most once per snapshot interval
+ * (the latest best solution is sent when the interval ends). The stream ends with the final status and solution.
+ * Nothing is built for jobs that nobody listens to.
+ */
+@Service
+public class SolveEventService {
+
+    private final Map<String, JobListeners> listenersByJobId = new ConcurrentHashMap<>();
+    private final long snapshotIntervalMillis;
+    private final ScheduledExecutorService snapshotScheduler;
+
+    public SolveEventService(@Value("${timetable.jobs.events.snapshot-interval:5s}") Duration snapshotInterval) {
+        this.snapshotIntervalMillis = snapshotInterval.toMillis();
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "solve-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Jauns klausītājs: uzreiz saņem pašreizējo statusu un, ja ir, risinājumu; pabeigtam darbam plūsma ar to beidzas
+    public SseEmitter subscribe(SolveJob job, TimeTable latestSolution) {
+        SseEmitter emitter = new SseEmitter(0L); // bez noildzes, risināšana var ilgt minūtes
+        JobListeners listeners = listenersByJobId.computeIfAbsent(job.getJobId(), jobId -> new JobListeners());
+        synchronized (listeners) {
+            boolean finished = listeners.finished || isFinished(job.getStatus());
+            try {
+                send(emitter, "status", status(job));
+                if (latestSolution != null) {
+                    send(emitter, "score", score(latestSolution));
+                    send(emitter, "solution", new SolutionSnapshot(latestSolution));
+                }
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                return emitter;
+            }
+            if (finished) {
+                emitter.complete();
+                if (listeners.emitters.isEmpty()) {
+                    listenersByJobId.remove(job.getJobId(), listeners);
+                }
+                return emitter;
+            }
+            listeners.emitters.add(emitter);
+        }
+        emitter.onCompletion(() -> listeners.emitters.remove(emitter));
+        emitter.onTimeout(() -> listeners.emitters.remove(emitter));
+        emitter.onError(e -> listeners.emitters.remove(emitter));
+        return emitter;
+    }
+
+    public void statusChanged(SolveJob job) {
+        JobListeners listeners = listenersByJobId.get(job.getJobId());
+        if (listeners == null) return;
+        synchronized (listeners) {
+            broadcast(listeners, "status", status(job));
+        }
+    }
+
+    // Rezultāta uzlabojumu sūta uzreiz, risinājumu - ne biežāk kā reizi snapshotIntervalMillis
+    public void bestSolutionChanged(SolveJob job, TimeTable bestSolution) {
+        JobListeners listeners = listenersByJobId.get(job.getJobId());
+        if (listeners == null || listeners.emitters.isEmpty()) return;
+        synchronized (listeners) {
+            broadcast(listeners, "score", score(bestSolution));
+            listeners.bestSolutionVersion++;
+            long waitMillis = listeners.lastSnapshotMillis + snapshotIntervalMillis - System.currentTimeMillis();
+            if (waitMillis <= 0) {
+                sendSnapshot(listeners, bestSolution);
+            } else if (!listeners.snapshotScheduled) {
+                // Intervāla beigās nosūta tā brīža labāko risinājumu
+                listeners.snapshotScheduled = true;
+                snapshotScheduler.schedule(() -> sendScheduledSnapshot(job, listeners), waitMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Galīgais statuss un risinājums (neveiksmīgam darbam null), pēc tam plūsmas beidzas
+    public void jobFinished(SolveJob job, TimeTable solution) {
+        JobListeners listeners = listenersByJobId.remove(job.getJobId());
+        if (listeners == null) return;
+        synchronized (listeners) {
+            listeners.finished = true;
+            if (solution != null) {
+                broadcast(listeners, "score", score(solution));
+                broadcast(listeners, "solution", new SolutionSnapshot(solution));
+            }
+            broadcast(listeners, "status", status(job));
+            for (SseEmitter emitter : listeners.emitters) {
+                emitter.complete();
+            }
+            listeners.emitters.clear();
+        }
+    }
+
+    private void sendScheduledSnapshot(SolveJob job, JobListeners listeners) {
+        synchronized (listeners) {
+            listeners.snapshotScheduled = false;
+            TimeTable bestSolution = job.getBestSolution();
+            // Nesūta vēlreiz, ja kopš intervāla sākuma jau nosūtīts jaunākais risinājums
+            if (!listeners.finished && bestSolution != null && listeners.snapshotVersion != listeners.bestSolutionVersion) {
+                sendSnapshot(listeners, bestSolution);
+            }
+        }
+    }
+
+    private void sendSnapshot(JobListeners listeners, TimeTable solution) {
+        listeners.lastSnapshotMillis = System.currentTimeMillis();
+        listeners.snapshotVersion = listeners.bestSolutionVersion;
+        broadcast(listeners, "solution", new SolutionSnapshot(solution));
+    }
+
+    private void broadcast(JobListeners listeners, String name, Object data) {
+        if (listeners.emitters.isEmpty()) return;
+        for (SseEmitter emitter : listeners.emitters) {
+            try {
+                send(emitter, name, data);
+            } catch (IOException | IllegalStateException e) {
+                // Klients atvienojies
+                listeners.emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private static void send(SseEmitter emitter, String name, Object data) throws IOException {
+        emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+    }
+
+    private static Map<String, Object> status(SolveJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", job.getJobId());
+        status.put("status", job.getStatus());
+        if (job.getError() != null) {
+            status.put("error", String.valueOf(job.getError().getMessage()));
+        }
+        return status;
+    }
+
+    private static Map<String, Object> score(TimeTable solution) {
+        Map<String, Object> score = new LinkedHashMap<>();
+        score.put("score", String.valueOf(solution.getScore()));
+        score.put("at", Instant.now().toString());
+        return score;
+    }
+
+    private static boolean isFinished(SolveStatus status) {
+        return status == SolveStatus.COMPLETED || status == SolveStatus.FAILED || status == SolveStatus.CANCELLED;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotScheduler.shutdownNow();
+        listenersByJobId.values().forEach(listeners -> listeners.emitters.forEach(SseEmitter::complete));
+    }
+
+    // Viena darba klausītāji un risinājumu sūtīšanas ierobežošanas stāvoklis
+    private static final class JobListeners {
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private long lastSnapshotMillis;
+        // Labāko risinājumu skaits un tā risinājuma numurs, kas nosūtīts pēdējais
+        private long bestSolutionVersion;
+        private long snapshotVersion;
+        private boolean snapshotScheduled;
+        private boolean finished;
+    }
+}
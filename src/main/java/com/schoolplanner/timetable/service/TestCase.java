@@ -151,7 +151,7 @@ public class TestCase {
         lessons.add(new Lesson(806L, chem8, class8A));
 
 
-        return new TimeTable(
+        return ProblemIndexer.index(new TimeTable(
                 allTimeSlots,
                 allRooms,
                 allTeachers,
@@ -159,6 +159,6 @@ public class TestCase {
                 allClasses,
                 lessons,
                 HardSoftScore.ZERO
-        );
+        ));
     }
 }
\ No newline at end of file
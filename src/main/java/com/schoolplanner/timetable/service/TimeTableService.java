@@ -1,36 +1,310 @@
 package com.schoolplanner.timetable.service;
 
+import ai.timefold.solver.core.api.domain.solution.ConstraintWeightOverrides;
 import ai.timefold.solver.core.api.score.ScoreExplanation;
 import ai.timefold.solver.core.api.solver.SolutionManager;
 import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverFactory;
 import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverJobBuilder;
 import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationCompositionStyle;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import com.schoolplanner.timetable.controller.dto.SolveOptions;
 import com.schoolplanner.timetable.domain.*;
+import com.schoolplanner.timetable.solver.LessonGroupCanonicalizer;
+import com.schoolplanner.timetable.solver.TimeTableConstraintProvider;
+import jakarta.annotation.PreDestroy;
 import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 @Service
 public class TimeTableService {
 
     private final SolverManager<TimeTable, UUID> solverManager;
+    private final SolverConfig solverConfig;
+    // Risinātāji darbiem ar citu moveThreadCount nekā solverConfig (NONE, AUTO vai skaits -> SolverManager)
+    private final Map<String, SolverManager<TimeTable, UUID>> solverManagersByMoveThreadCount = new ConcurrentHashMap<>();
+    // Risināmie darbi pēc problemId, tikai kamēr darbojas solve (divu posmu risināšanā - arī starp posmiem)
+    private final Map<UUID, RunningSolve> runningSolves = new ConcurrentHashMap<>();
     @Getter
     private final SolutionManager<TimeTable, HardSoftScore> solutionManager;
+    // Divu posmu risināšana: vispirms tikai cietie ierobežojumi, pēc tam visi
+    private final boolean hardFirst;
+    private final long hardPhaseSecondsLimit;
 
     public TimeTableService(SolverManager<TimeTable, UUID> solverManager,
-                            SolutionManager<TimeTable, HardSoftScore> solutionManager) {
+                            SolverConfig solverConfig,
+                            SolutionManager<TimeTable, HardSoftScore> solutionManager,
+                            @Value("${timetable.solver.hard-first:false}") boolean hardFirst,
+                            @Value("${timetable.solver.hard-phase-seconds-limit:240}") long hardPhaseSecondsLimit) {
         this.solverManager = solverManager;
+        this.solverConfig = solverConfig;
         this.solutionManager = solutionManager;
+        this.hardFirst = hardFirst;
+        this.hardPhaseSecondsLimit = hardPhaseSecondsLimit;
     }
 
     public TimeTable solve(TimeTable problem) throws ExecutionException, InterruptedException {
-        UUID problemId = UUID.randomUUID();
-        SolverJob<TimeTable, UUID> solverJob = solverManager.solve(problemId, problem);
-        return solverJob.getFinalBestSolution();
+        return solve(problem, SolveOptions.defaults(), solution -> {});
+    }
+
+    public TimeTable solve(TimeTable problem, SolveOptions options, Consumer<TimeTable> bestSolutionConsumer) throws ExecutionException, InterruptedException {
+        return solve(UUID.randomUUID(), problem, options, bestSolutionConsumer);
+    }
+
+    // bestSolutionConsumer saņem katru jaunu labāko risinājumu (arī pirmajā posmā, ja ieslēgta divu posmu risināšana).
+    // Ar problemId risināšanu var apturēt (terminateEarly).
+    public TimeTable solve(UUID problemId, TimeTable problem, SolveOptions options, Consumer<TimeTable> bestSolutionConsumer) throws ExecutionException, InterruptedException {
+        return solve(problemId, problem, options, bestSolutionConsumer, () -> false);
+    }
+
+    // stopRequested ļauj apturēt arī pirms solve sākuma: to pārbauda katra posma sākumā
+    public TimeTable solve(UUID problemId, TimeTable problem, SolveOptions options, Consumer<TimeTable> bestSolutionConsumer,
+                           BooleanSupplier stopRequested) throws ExecutionException, InterruptedException {
+        SolverManager<TimeTable, UUID> solverManager = solverManager(options);
+        TerminationConfig termination = terminationConfig(options);
+        RunningSolve running = new RunningSolve(stopRequested);
+        runningSolves.put(problemId, running);
+        try {
+            if (hardFirst) {
+                // Darba laika limits ir kopīgs abiem posmiem: otrais saņem tikai to, ko pirmais neizlietoja
+                Long spentLimitMillis = spentLimitMillis(options);
+                long hardPhaseMillis = spentLimitMillis == null
+                        ? hardPhaseSecondsLimit * 1000 : Math.min(hardPhaseSecondsLimit * 1000, spentLimitMillis);
+                long startMillis = System.currentTimeMillis();
+                problem = solveHardConstraints(running, solverManager, problem, hardPhaseMillis, bestSolutionConsumer);
+                if (running.isTerminated()) {
+                    // Apturēts pirmajā posmā: otro nesāk
+                    return LessonGroupCanonicalizer.canonicalize(problem);
+                }
+                if (spentLimitMillis != null) {
+                    long remainingMillis = spentLimitMillis - (System.currentTimeMillis() - startMillis);
+                    if (remainingMillis <= 0) {
+                        return LessonGroupCanonicalizer.canonicalize(problem);
+                    }
+                    if (termination == null) {
+                        termination = solverConfig.getTerminationConfig().copyConfig();
+                    }
+                    termination.overwriteSpentLimit(Duration.ofMillis(remainingMillis));
+                }
+            }
+            SolverJobBuilder<TimeTable, UUID> solverJobBuilder = solverManager.solveBuilder()
+                    .withProblemId(UUID.randomUUID())
+                    .withProblem(problem)
+                    .withBestSolutionConsumer(bestSolutionConsumer);
+            if (termination != null) {
+                solverJobBuilder.withConfigOverride(new SolverConfigOverride<TimeTable>().withTerminationConfig(termination));
+            }
+            TimeTable solution = run(running, solverJobBuilder);
+            // Aizvietojamo stundu laiki pieaug stundu secībā arī galīgajā risinājumā (rezultāts nemainās)
+            return LessonGroupCanonicalizer.canonicalize(solution);
+        } finally {
+            runningSolves.remove(problemId, running);
+        }
+    }
+
+    // Mīkstie ierobežojumi ir izslēgti, līdz sasniegts 0hard vai beidzies laika limits.
+    // Pēc tam turpina ar visiem ierobežojumiem un parasto solverConfig.xml beigšanas nosacījumu. Atgrieztā risinājuma
+    // rezultāts ir pārrēķināts ar visiem ierobežojumiem, jo solve to var atgriezt bez otrā posma (apturēts vai beidzies
+    // laiks).
+    private TimeTable solveHardConstraints(RunningSolve running, SolverManager<TimeTable, UUID> solverManager, TimeTable problem,
+                                           long hardPhaseMillis, Consumer<TimeTable> bestSolutionConsumer) throws ExecutionException, InterruptedException {
+        problem.setConstraintWeightOverrides(TimeTableConstraintProvider.hardOnlyWeights());
+        TerminationConfig hardPhaseTermination = new TerminationConfig()
+                .withBestScoreLimit("0hard/*soft")
+                .withSpentLimit(Duration.ofMillis(hardPhaseMillis));
+        TimeTable solution = run(running, solverManager.solveBuilder()
+                .withProblemId(UUID.randomUUID())
+                .withProblem(problem)
+                .withBestSolutionConsumer(bestSolution -> bestSolutionConsumer.accept(withFullScore(bestSolution)))
+                .withConfigOverride(new SolverConfigOverride<TimeTable>().withTerminationConfig(hardPhaseTermination)));
+        return withFullScore(solution);
+    }
+
+    // Pirmās pakāpes risinājuma rezultātā mīkstā daļa ir 0, tāpēc pirms publicēšanas to pārrēķina ar pilniem svariem
+    private TimeTable withFullScore(TimeTable solution) {
+        solution.setConstraintWeightOverrides(ConstraintWeightOverrides.none());
+        solutionManager.update(solution);
+        return solution;
+    }
+
+    // Katram posmam savs SolverManager problemId (iepriekšējā posma darbs var vēl nebūt izņemts no SolverManager),
+    // bet apturēšana atrod to pēc darba problemId
+    private TimeTable run(RunningSolve running, SolverJobBuilder<TimeTable, UUID> solverJobBuilder) throws ExecutionException, InterruptedException {
+        SolverJob<TimeTable, UUID> solverJob = solverJobBuilder.run();
+        running.start(solverJob);
+        try {
+            return solverJob.getFinalBestSolution();
+        } finally {
+            running.finish();
+        }
+    }
+
+    // Beidz risināšanu ar līdz šim labāko risinājumu (to atgriež solve); ja posms vēl nav sācies, tas beigsies uzreiz.
+    // Darbam, kas nerisinās, nedara neko.
+    public void terminateEarly(UUID problemId) {
+        RunningSolve running = runningSolves.get(problemId);
+        if (running != null) {
+            running.terminate();
+        }
+    }
+
+    // Darba beigšanas nosacījums: solverConfig.xml <termination> ar pieprasījumā norādītajiem ierobežojumiem, null, ja
+    // tādu nav. secondsSpentLimit aizstāj kopējo laika limitu, unimprovedSecondsSpentLimit - visus limitus bez
+    // uzlabojuma (ja tādu nav, tas ir papildu nosacījums), bestScoreLimit ir papildu nosacījums (OR).
+    // Nederīgas vērtības izmet IllegalArgumentException jau darba iesniegšanā.
+    public TerminationConfig terminationConfig(SolveOptions options) {
+        Long secondsSpentLimit = options.getSecondsSpentLimit();
+        Long unimprovedSecondsSpentLimit = options.getUnimprovedSecondsSpentLimit();
+        String bestScoreLimit = options.getBestScoreLimit() == null || options.getBestScoreLimit().isBlank()
+                ? null : options.getBestScoreLimit().trim();
+        if (secondsSpentLimit == null && unimprovedSecondsSpentLimit == null && bestScoreLimit == null) {
+            return null;
+        }
+        TerminationConfig termination = solverConfig.getTerminationConfig() == null
+                ? new TerminationConfig() : solverConfig.getTerminationConfig().copyConfig();
+        if (secondsSpentLimit != null) {
+            if (secondsSpentLimit <= 0) {
+                throw new IllegalArgumentException("secondsSpentLimit must be positive (" + secondsSpentLimit + ").");
+            }
+            termination.overwriteSpentLimit(Duration.ofSeconds(secondsSpentLimit));
+        }
+        if (unimprovedSecondsSpentLimit != null) {
+            if (unimprovedSecondsSpentLimit <= 0) {
+                throw new IllegalArgumentException("unimprovedSecondsSpentLimit must be positive (" + unimprovedSecondsSpentLimit + ").");
+            }
+            if (!overwriteUnimprovedSpentLimit(termination, Duration.ofSeconds(unimprovedSecondsSpentLimit))) {
+                termination = anyOf(termination, new TerminationConfig().withUnimprovedSecondsSpentLimit(unimprovedSecondsSpentLimit));
+            }
+        }
+        if (bestScoreLimit != null) {
+            // Tāpat kā Timefold, * nozīmē jebkuru vērtību
+            HardSoftScore.parseScore(bestScoreLimit.replace("*", "0"));
+            termination = anyOf(termination, new TerminationConfig().withBestScoreLimit(bestScoreLimit));
+        }
+        return termination;
+    }
+
+    // Darba kopējais laika limits: secondsSpentLimit vai solverConfig.xml <termination> laika limits, null, ja tāda nav
+    private Long spentLimitMillis(SolveOptions options) {
+        if (options.getSecondsSpentLimit() != null) {
+            return options.getSecondsSpentLimit() * 1000;
+        }
+        return solverConfig.getTerminationConfig() == null ? null : solverConfig.getTerminationConfig().calculateTimeMillisSpentLimit();
+    }
+
+    private static boolean overwriteUnimprovedSpentLimit(TerminationConfig termination, Duration limit) {
+        boolean overwritten = false;
+        if (termination.calculateUnimprovedTimeMillisSpentLimit() != null) {
+            termination.overwriteUnimprovedSpentLimit(limit);
+            overwritten = true;
+        }
+        if (termination.getTerminationConfigList() != null) {
+            for (TerminationConfig child : termination.getTerminationConfigList()) {
+                overwritten |= overwriteUnimprovedSpentLimit(child, limit);
+            }
+        }
+        return overwritten;
+    }
+
+    private static TerminationConfig anyOf(TerminationConfig termination, TerminationConfig other) {
+        if (!termination.isConfigured()) {
+            return other;
+        }
+        return new TerminationConfig()
+                .withTerminationCompositionStyle(TerminationCompositionStyle.OR)
+                .withTerminationConfigList(List.of(termination, other));
+    }
+
+    // Darba risinātājs: bez moveThreadCount - no solverConfig.xml un timefold.solver.move-thread-count, citādi ar to pašu
+    // konfigurāciju un norādīto pavedienu skaitu (vienu reizi katrai vērtībai). Risinātāju uzbūvē uzreiz, lai nederīga
+    // vērtība vai vairāku pavedienu risināšana bez Timefold Solver Enterprise Edition izmestu IllegalArgumentException
+    // vai IllegalStateException jau darba iesniegšanā, nevis risinātāja pavedienā.
+    public SolverManager<TimeTable, UUID> solverManager(SolveOptions options) {
+        String moveThreadCount = options.getMoveThreadCount();
+        if (moveThreadCount == null || moveThreadCount.isBlank()) {
+            return solverManager;
+        }
+        return solverManagersByMoveThreadCount.computeIfAbsent(normalizeMoveThreadCount(moveThreadCount), count -> {
+            SolverFactory<TimeTable> solverFactory = SolverFactory.create(new SolverConfig(solverConfig).withMoveThreadCount(count));
+            solverFactory.buildSolver();
+            return SolverManager.create(solverFactory);
+        });
+    }
+
+    // Katrai vērtībai ir savs SolverManager ar pavedienu kopu, tāpēc atļautas tikai NONE, AUTO un skaits no 1 līdz
+    // procesora kodolu skaitam (vairāk pavedienu par kodoliem neko nedod), un "02" ir tas pats, kas "2"
+    private static String normalizeMoveThreadCount(String moveThreadCount) {
+        String value = moveThreadCount.trim().toUpperCase();
+        if (value.equals(SolverConfig.MOVE_THREAD_COUNT_NONE) || value.equals(SolverConfig.MOVE_THREAD_COUNT_AUTO)) {
+            return value;
+        }
+        int maxThreadCount = Runtime.getRuntime().availableProcessors();
+        int threadCount;
+        try {
+            threadCount = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            threadCount = 0;
+        }
+        if (threadCount < 1 || threadCount > maxThreadCount) {
+            throw new IllegalArgumentException("moveThreadCount must be NONE, AUTO or a number from 1 to "
+                    + maxThreadCount + " (" + moveThreadCount + ").");
+        }
+        return String.valueOf(threadCount);
+    }
+
+    @PreDestroy
+    public void closeSolverManagers() {
+        solverManagersByMoveThreadCount.values().forEach(SolverManager::close);
+    }
+
+    // Viena solve izsaukuma pašreizējais posms un apturēšana; posma sākums un apturēšana notiek ar vienu slēdzeni,
+    // tāpēc apturēšana vienmēr vai nu atrod posmu, vai arī posms to redz sākumā
+    private static final class RunningSolve {
+
+        private final BooleanSupplier stopRequested;
+        private SolverJob<TimeTable, UUID> solverJob;
+        private boolean terminated;
+
+        private RunningSolve(BooleanSupplier stopRequested) {
+            this.stopRequested = stopRequested;
+        }
+
+        private synchronized void start(SolverJob<TimeTable, UUID> solverJob) {
+            this.solverJob = solverJob;
+            if (isTerminated()) {
+                solverJob.terminateEarly(); // apturēts, pirms šis posms sākās
+            }
+        }
+
+        private synchronized void finish() {
+            solverJob = null;
+        }
+
+        private synchronized void terminate() {
+            terminated = true;
+            if (solverJob != null) {
+                solverJob.terminateEarly();
+            }
+        }
+
+        private synchronized boolean isTerminated() {
+            return terminated || stopRequested.getAsBoolean();
+        }
     }
 }
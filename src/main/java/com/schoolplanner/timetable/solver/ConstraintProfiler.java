@@ -0,0 +1,120 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.domain.solution.ConstraintWeightOverrides;
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.score.constraint.ConstraintMatchTotal;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.score.director.ScoreDirectorFactoryConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.schoolplanner.timetable.domain.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+
+// Katra TimeTableConstraintProvider ierobežojuma izmaksas uz konkrēta saraksta. Bavet mezgli ir kopīgi vairākiem
+// ierobežojumiem, tāpēc risināšanas laiku nevar sadalīt pa ierobežojumiem; tā vietā katru ierobežojumu izvērtē
+// atsevišķi (pārējiem ConstraintWeightOverrides svars 0) ar vienu un to pašu nejaušu change gājienu virkni.
+// Timefold iekšējās API izmanto tikai caur ProfilingScoreDirector.
+public class ConstraintProfiler {
+
+    private final SolverFactory<TimeTable> solverFactory;
+    private final int moveCount;
+
+    public ConstraintProfiler(int moveCount) {
+        // Vienmēr constraint streams, arī ja lietotne izmanto inkrementālo kalkulatoru
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withScoreDirectorFactory(new ScoreDirectorFactoryConfig()
+                        .withConstraintProviderClass(TimeTableConstraintProvider.class));
+        this.solverFactory = SolverFactory.create(solverConfig);
+        this.moveCount = moveCount;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Sample {
+        private final String constraintName;
+        private final int matchCount;
+        private final HardSoftScore score;
+        private final int moveCount;
+        private final long nanos;
+    }
+
+    // Risinājums netiek mainīts - gājieni tiek veikti uz tā kopijas
+    public List<Sample> profile(TimeTable solution) {
+        List<ConstraintMatchTotal<HardSoftScore>> totals;
+        try (ProfilingScoreDirector scoreDirector = ProfilingScoreDirector.create(solverFactory, true)) {
+            scoreDirector.setWorkingSolution(copy(scoreDirector, solution, ConstraintWeightOverrides.none()));
+            scoreDirector.calculateScore();
+            totals = new ArrayList<>(scoreDirector.getConstraintMatchTotals());
+        }
+
+        List<Sample> samples = new ArrayList<>();
+        for (ConstraintMatchTotal<HardSoftScore> total : totals) {
+            Map<String, HardSoftScore> weights = new HashMap<>();
+            for (ConstraintMatchTotal<HardSoftScore> other : totals) {
+                if (other != total) {
+                    weights.put(other.getConstraintName(), HardSoftScore.ZERO);
+                }
+            }
+            long nanos = measure(solution, ConstraintWeightOverrides.of(weights));
+            samples.add(new Sample(total.getConstraintName(), total.getConstraintMatchCount(), total.getScore(), moveCount, nanos));
+        }
+        return samples;
+    }
+
+    // Katrs gājiens: maina vienu mainīgo, pārrēķina rezultātu un atjauno iepriekšējo vērtību. Vērtības ņem no
+    // entītijas vērtību diapazona (ProblemIndexer), tāpat kā risinātājs, nevis no visiem laikiem, telpām un skolotājiem.
+    private long measure(TimeTable solution, ConstraintWeightOverrides<HardSoftScore> overrides) {
+        try (ProfilingScoreDirector scoreDirector = ProfilingScoreDirector.create(solverFactory, false)) {
+            TimeTable copy = copy(scoreDirector, solution, overrides);
+            scoreDirector.setWorkingSolution(copy);
+            scoreDirector.calculateScore();
+
+            Random random = new Random(0);
+            List<Lesson> lessons = copy.getLessons();
+            long start = System.nanoTime();
+            for (int i = 0; i < moveCount; i++) {
+                Lesson lesson = lessons.get(random.nextInt(lessons.size()));
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        TimeSlot old = lesson.getTimeSlot();
+                        TimeSlot value = pick(lesson.getTimeSlotRange(), random);
+                        scoreDirector.change(lesson, "timeSlot", () -> lesson.setTimeSlot(value));
+                        scoreDirector.calculateScore();
+                        scoreDirector.change(lesson, "timeSlot", () -> lesson.setTimeSlot(old));
+                    }
+                    case 1 -> {
+                        Room old = lesson.getRoom();
+                        Room value = pick(lesson.getRoomRange(), random);
+                        scoreDirector.change(lesson, "room", () -> lesson.setRoom(value));
+                        scoreDirector.calculateScore();
+                        scoreDirector.change(lesson, "room", () -> lesson.setRoom(old));
+                    }
+                    default -> {
+                        // Skolotājs mainās visām (klase, mācību vienība) pāra stundām
+                        ClassUnitAssignment assignment = lesson.getAssignment();
+                        Teacher old = assignment.getTeacher();
+                        Teacher value = pick(assignment.getTeacherRange(), random);
+                        scoreDirector.change(assignment, "teacher", () -> assignment.setTeacher(value));
+                        scoreDirector.calculateScore();
+                        scoreDirector.change(assignment, "teacher", () -> assignment.setTeacher(old));
+                    }
+                }
+            }
+            scoreDirector.calculateScore();
+            return System.nanoTime() - start;
+        }
+    }
+
+    private static TimeTable copy(ProfilingScoreDirector scoreDirector, TimeTable solution,
+                                  ConstraintWeightOverrides<HardSoftScore> overrides) {
+        TimeTable copy = scoreDirector.cloneSolution(solution);
+        copy.setConstraintWeightOverrides(overrides);
+        return copy;
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.phase.custom.CustomPhaseCommand;
+import com.schoolplanner.timetable.domain.ClassUnitAssignment;
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.Room;
+import com.schoolplanner.timetable.domain.TimeSlot;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Simetrijas laušana: vienas (klase, mācību vienība) pāra aizvietojamo stundu (Lesson.isInterchangeableWith) laika un
+// telpas pārus pārdala tā, lai laiki pieaugtu ClassUnitAssignment.lessons secībā. Saraksts un rezultāts nemainās,
+// bet katram sarakstam ir viens pieraksts (pirmā matemātikas stunda vienmēr ir agrākā). Pēc konstrukcijas heiristikas
+// un galīgajam risinājumam (TimeTableService).
+public class LessonGroupCanonicalizer implements CustomPhaseCommand<TimeTable> {
+
+    private static final Comparator<Lesson> BY_TIME_AND_ROOM = Comparator
+            .comparingInt((Lesson lesson) -> lesson.getTimeSlot().getOrdinal())
+            .thenComparing(Lesson::getRoom, Comparator.nullsLast(Comparator.comparing(Room::getId)));
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<TimeTable> scoreDirector) {
+        canonicalize(scoreDirector.getWorkingSolution(), scoreDirector);
+        scoreDirector.triggerVariableListeners();
+    }
+
+    // Ārpus risinātāja (galīgais risinājums): mainīgos maina tieši
+    public static TimeTable canonicalize(TimeTable timeTable) {
+        canonicalize(timeTable, null);
+        return timeTable;
+    }
+
+    private static void canonicalize(TimeTable timeTable, ScoreDirector<TimeTable> scoreDirector) {
+        if (timeTable.getClassUnitAssignments() == null) return;
+        for (ClassUnitAssignment assignment : timeTable.getClassUnitAssignments()) {
+            // Aizvietojamas ir tikai assignment stundas ar vienādu garumu
+            Map<Integer, List<Lesson>> groups = new TreeMap<>();
+            for (Lesson lesson : assignment.getLessons()) {
+                groups.computeIfAbsent(lesson.getPeriods(), periods -> new ArrayList<>()).add(lesson);
+            }
+            for (List<Lesson> group : groups.values()) {
+                canonicalizeGroup(group, scoreDirector);
+            }
+        }
+    }
+
+    private static void canonicalizeGroup(List<Lesson> group, ScoreDirector<TimeTable> scoreDirector) {
+        if (group.size() < 2) return;
+        for (Lesson lesson : group) {
+            if (lesson.getTimeSlot() == null) return; // vēl nav inicializēta
+        }
+        List<Lesson> sorted = new ArrayList<>(group);
+        sorted.sort(BY_TIME_AND_ROOM);
+        List<TimeSlot> timeSlots = new ArrayList<>(sorted.size());
+        List<Room> rooms = new ArrayList<>(sorted.size());
+        for (Lesson lesson : sorted) {
+            timeSlots.add(lesson.getTimeSlot());
+            rooms.add(lesson.getRoom());
+        }
+        for (int i = 0; i < group.size(); i++) {
+            Lesson lesson = group.get(i);
+            if (lesson.getTimeSlot() != timeSlots.get(i)) {
+                if (scoreDirector != null) scoreDirector.beforeVariableChanged(lesson, "timeSlot");
+                lesson.setTimeSlot(timeSlots.get(i));
+                if (scoreDirector != null) scoreDirector.afterVariableChanged(lesson, "timeSlot");
+            }
+            if (lesson.getRoom() != rooms.get(i)) {
+                if (scoreDirector != null) scoreDirector.beforeVariableChanged(lesson, "room");
+                lesson.setRoom(rooms.get(i));
+                if (scoreDirector != null) scoreDirector.afterVariableChanged(lesson, "room");
+            }
+        }
+    }
+}
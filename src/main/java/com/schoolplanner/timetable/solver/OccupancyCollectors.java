@@ -0,0 +1,187 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.score.stream.uni.UniConstraintCollector;
+import com.schoolplanner.timetable.domain.SchoolDay;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// Kolektori, kas grupas aizņemtos periodus glabā kā skaitītāju masīvu un bitmasku.
+// Ievietošana un atsaukšana ir O(1), rezultāts ir bitmaska (bits i = periods i ir aizņemts).
+public final class OccupancyCollectors {
+
+    public static final int MAX_PERIODS = Long.SIZE;
+
+    private OccupancyCollectors() {
+    }
+
+    public static <A> UniConstraintCollector<A, Occupancy, Long> occupancy(ToIntFunction<A> periodMapper) {
+        return occupancy(periodMapper, a -> 1);
+    }
+
+    // Bloks aizņem lengthMapper periodus pēc kārtas, sākot ar periodMapper
+    public static <A> UniConstraintCollector<A, Occupancy, Long> occupancy(ToIntFunction<A> periodMapper,
+                                                                          ToIntFunction<A> lengthMapper) {
+        return new UniConstraintCollector<>() {
+            @Override
+            public Supplier<Occupancy> supplier() {
+                return Occupancy::new;
+            }
+
+            @Override
+            public BiFunction<Occupancy, A, Runnable> accumulator() {
+                return (occupancy, a) -> occupancy.insert(periodMapper.applyAsInt(a), lengthMapper.applyAsInt(a));
+            }
+
+            @Override
+            public Function<Occupancy, Long> finisher() {
+                return Occupancy::mask;
+            }
+        };
+    }
+
+    // Tas pats pa visu nedēļu: rezultāts ir bitmasku masīvs, indeksēts ar TimeSlot.dayIndex
+    public static <A> UniConstraintCollector<A, WeekOccupancy, long[]> weekOccupancy(ToIntFunction<A> dayMapper,
+                                                                                   ToIntFunction<A> periodMapper) {
+        return weekOccupancy(dayMapper, periodMapper, a -> 1);
+    }
+
+    public static <A> UniConstraintCollector<A, WeekOccupancy, long[]> weekOccupancy(ToIntFunction<A> dayMapper,
+                                                                                   ToIntFunction<A> periodMapper,
+                                                                                   ToIntFunction<A> lengthMapper) {
+        return new UniConstraintCollector<>() {
+            @Override
+            public Supplier<WeekOccupancy> supplier() {
+                return WeekOccupancy::new;
+            }
+
+            @Override
+            public BiFunction<WeekOccupancy, A, Runnable> accumulator() {
+                return (occupancy, a) -> occupancy.days[dayMapper.applyAsInt(a)]
+                        .insert(periodMapper.applyAsInt(a), lengthMapper.applyAsInt(a));
+            }
+
+            @Override
+            public Function<WeekOccupancy, long[]> finisher() {
+                return WeekOccupancy::masks;
+            }
+        };
+    }
+
+    // Stundu skaits pa dienām un no tā izrietošais nevienmērības sods, ko atjauno ar katru ievietošanu/atsaukšanu
+    public static <A> UniConstraintCollector<A, DayBalance, Integer> dayBalance(ToIntFunction<A> dayMapper) {
+        return dayBalance(dayMapper, a -> 1);
+    }
+
+    // countMapper: cik stundu ieraksts pieskaita dienai (bloks - tā periodu skaits)
+    public static <A> UniConstraintCollector<A, DayBalance, Integer> dayBalance(ToIntFunction<A> dayMapper,
+                                                                              ToIntFunction<A> countMapper) {
+        return new UniConstraintCollector<>() {
+            @Override
+            public Supplier<DayBalance> supplier() {
+                return DayBalance::new;
+            }
+
+            @Override
+            public BiFunction<DayBalance, A, Runnable> accumulator() {
+                return (balance, a) -> balance.insert(dayMapper.applyAsInt(a), countMapper.applyAsInt(a));
+            }
+
+            @Override
+            public Function<DayBalance, Integer> finisher() {
+                return DayBalance::penalty;
+            }
+        };
+    }
+
+    public static final class Occupancy {
+
+        // Vienā periodā var būt vairākas stundas (konflikts), tāpēc bits tiek notīrīts tikai pie 0
+        private final int[] counts = new int[MAX_PERIODS];
+        private long mask;
+
+        Runnable insert(int period) {
+            return insert(period, 1);
+        }
+
+        Runnable insert(int period, int length) {
+            if (period < 0 || period + length > MAX_PERIODS) {
+                throw new IllegalArgumentException("Periods " + period + "-" + (period + length - 1)
+                        + " do not fit in the occupancy mask.");
+            }
+            for (int p = period; p < period + length; p++) {
+                if (counts[p]++ == 0) {
+                    mask |= 1L << p;
+                }
+            }
+            return () -> retract(period, length);
+        }
+
+        private void retract(int period, int length) {
+            for (int p = period; p < period + length; p++) {
+                if (--counts[p] == 0) {
+                    mask &= ~(1L << p);
+                }
+            }
+        }
+
+        long mask() {
+            return mask;
+        }
+    }
+
+    public static final class WeekOccupancy {
+
+        private final Occupancy[] days = new Occupancy[SchoolDay.values().length];
+
+        WeekOccupancy() {
+            for (int i = 0; i < days.length; i++) {
+                days[i] = new Occupancy();
+            }
+        }
+
+        long[] masks() {
+            long[] masks = new long[days.length];
+            for (int i = 0; i < days.length; i++) {
+                masks[i] = days[i].mask;
+            }
+            return masks;
+        }
+    }
+
+    public static final class DayBalance {
+
+        private static final int DAYS = SchoolDay.values().length;
+
+        private final int[] counts = new int[DAYS];
+        private int total;
+        private int sumOfSquares;
+
+        Runnable insert(int day) {
+            return insert(day, 1);
+        }
+
+        Runnable insert(int day, int count) {
+            // (c+n)^2 - c^2 = n * (2c + n)
+            sumOfSquares += count * (2 * counts[day] + count);
+            counts[day] += count;
+            total += count;
+            return () -> {
+                counts[day] -= count;
+                sumOfSquares -= count * (2 * counts[day] + count);
+                total -= count;
+            };
+        }
+
+        int penalty() {
+            return penalty(total, sumOfSquares);
+        }
+
+        // Σ (2 * |total/DAYS - c|)^2 = 4 * (DAYS * Σc^2 - total^2) / DAYS, aprēķināts veselos skaitļos
+        static int penalty(int total, int sumOfSquares) {
+            return 4 * (DAYS * sumOfSquares - total * total) / DAYS;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.score.constraint.ConstraintMatchTotal;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.impl.score.constraint.ConstraintMatchPolicy;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import ai.timefold.solver.core.impl.solver.DefaultSolverFactory;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+import java.util.Collection;
+
+// ConstraintProfiler rezultāta pārrēķins ārpus risinātāja. Publiskā API (SolutionManager) rēķina rezultātu tikai no
+// jauna, bet profilam vajag inkrementālu pārrēķinu pēc katras mainīgā maiņas, tāpēc šī ir vienīgā vieta, kas to dara
+// ar Timefold iekšējām API (DefaultSolverFactory, InnerScoreDirector, ConstraintMatchPolicy). Tās mainās starp
+// Timefold mazajām versijām: pārbaudīts ar 1.18.0, mainot versiju pom.xml jāpārbauda šī klase.
+final class ProfilingScoreDirector implements AutoCloseable {
+
+    private final InnerScoreDirector<TimeTable, HardSoftScore> scoreDirector;
+
+    private ProfilingScoreDirector(InnerScoreDirector<TimeTable, HardSoftScore> scoreDirector) {
+        this.scoreDirector = scoreDirector;
+    }
+
+    static ProfilingScoreDirector create(SolverFactory<TimeTable> solverFactory, boolean constraintMatchEnabled) {
+        return new ProfilingScoreDirector(((DefaultSolverFactory<TimeTable>) solverFactory)
+                .<HardSoftScore>getScoreDirectorFactory()
+                .buildScoreDirector(false, constraintMatchEnabled ? ConstraintMatchPolicy.ENABLED : ConstraintMatchPolicy.DISABLED));
+    }
+
+    TimeTable cloneSolution(TimeTable solution) {
+        return scoreDirector.cloneSolution(solution);
+    }
+
+    void setWorkingSolution(TimeTable solution) {
+        scoreDirector.setWorkingSolution(solution);
+    }
+
+    HardSoftScore calculateScore() {
+        return scoreDirector.calculateScore();
+    }
+
+    Collection<ConstraintMatchTotal<HardSoftScore>> getConstraintMatchTotals() {
+        return scoreDirector.getConstraintMatchTotalMap().values();
+    }
+
+    void change(Object entity, String variableName, Runnable assignment) {
+        scoreDirector.beforeVariableChanged(entity, variableName);
+        assignment.run();
+        scoreDirector.afterVariableChanged(entity, variableName);
+        scoreDirector.triggerVariableListeners();
+    }
+
+    @Override
+    public void close() {
+        scoreDirector.close();
+    }
+}
@@ -0,0 +1,38 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.score.director.ScoreDirectorFactoryConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.schoolplanner.timetable.domain.TimeTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Rezultāta aprēķina izvēle ar timetable.solver.score-engine: constraint-streams (TimeTableConstraintProvider) vai
+// incremental (TimeTableIncrementalScoreCalculator). Pārējā konfigurācija nāk no timefold.solver.solver-config-xml.
+// Timefold SolverManager un SolutionManager tiek veidoti no šī SolverFactory, un tas pats SolverConfig tiek
+// izmantots arī TimeTableService risinātājiem ar citu moveThreadCount.
+@Configuration
+public class ScoreEngineConfiguration {
+
+    public static final String CONSTRAINT_STREAMS = "constraint-streams";
+    public static final String INCREMENTAL = "incremental";
+
+    @Bean
+    public SolverFactory<TimeTable> solverFactory(SolverConfig solverConfig,
+                                                  @Value("${timetable.solver.score-engine:" + CONSTRAINT_STREAMS + "}") String scoreEngine) {
+        solverConfig.setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig(scoreEngine));
+        return SolverFactory.create(solverConfig);
+    }
+
+    public static ScoreDirectorFactoryConfig scoreDirectorFactoryConfig(String scoreEngine) {
+        return switch (scoreEngine) {
+            case CONSTRAINT_STREAMS -> new ScoreDirectorFactoryConfig()
+                    .withConstraintProviderClass(TimeTableConstraintProvider.class);
+            case INCREMENTAL -> new ScoreDirectorFactoryConfig()
+                    .withIncrementalScoreCalculatorClass(TimeTableIncrementalScoreCalculator.class);
+            default -> throw new IllegalArgumentException("Unknown timetable.solver.score-engine (" + scoreEngine
+                    + "), expected " + CONSTRAINT_STREAMS + " or " + INCREMENTAL + ".");
+        };
+    }
+}
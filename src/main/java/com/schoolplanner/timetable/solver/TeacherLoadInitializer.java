@@ -0,0 +1,55 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.phase.custom.CustomPhaseCommand;
+import com.schoolplanner.timetable.domain.ClassUnitAssignment;
+import com.schoolplanner.timetable.domain.Teacher;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sākotnējie skolotāji (klase, mācību vienība) pāriem pirms stundu konstrukcijas heiristikas. Kamēr stundām nav laika,
+// FIRST_FIT visus skolotājus vērtē vienādi un visus pārus atdotu pirmajam kvalificētajam skolotājam; tā vietā katrs pāris
+// saņem kvalificēto skolotāju ar mazāko noslodzi (stundas pret pieejamajiem laikiem). Vispirms pāri ar mazāk izvēlēm.
+public class TeacherLoadInitializer implements CustomPhaseCommand<TimeTable> {
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<TimeTable> scoreDirector) {
+        TimeTable timeTable = scoreDirector.getWorkingSolution();
+        Map<Teacher, Integer> lessonCount = new IdentityHashMap<>();
+        List<ClassUnitAssignment> unassigned = new ArrayList<>();
+        for (ClassUnitAssignment assignment : timeTable.getClassUnitAssignments()) {
+            if (assignment.getTeacher() == null) {
+                unassigned.add(assignment);
+            } else {
+                lessonCount.merge(assignment.getTeacher(), assignment.getPeriodCount(), Integer::sum);
+            }
+        }
+        unassigned.sort(Comparator.comparingInt((ClassUnitAssignment assignment) -> assignment.getTeacherRange().size())
+                .thenComparing(Comparator.comparingInt(ClassUnitAssignment::getPeriodCount).reversed())
+                .thenComparing(ClassUnitAssignment::getId));
+
+        for (ClassUnitAssignment assignment : unassigned) {
+            Teacher best = null;
+            double bestLoad = Double.MAX_VALUE;
+            for (Teacher teacher : assignment.getTeacherRange()) {
+                int lessons = lessonCount.getOrDefault(teacher, 0) + assignment.getPeriodCount();
+                double load = (double) lessons / Math.max(1, teacher.getAvailableSlotCount());
+                if (load < bestLoad) {
+                    best = teacher;
+                    bestLoad = load;
+                }
+            }
+            if (best == null) continue;
+            scoreDirector.beforeVariableChanged(assignment, "teacher");
+            assignment.setTeacher(best);
+            scoreDirector.afterVariableChanged(assignment, "teacher");
+            scoreDirector.triggerVariableListeners();
+            lessonCount.merge(best, assignment.getPeriodCount(), Integer::sum);
+        }
+    }
+}
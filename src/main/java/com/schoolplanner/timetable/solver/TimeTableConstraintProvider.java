@@ -1,7 +1,9 @@
 package com.schoolplanner.timetable.solver;
 
+import ai.timefold.solver.core.api.domain.solution.ConstraintWeightOverrides;
 import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
 import ai.timefold.solver.core.api.score.stream.*;
+import ai.timefold.solver.core.api.score.stream.bi.BiConstraintStream;
 import com.schoolplanner.timetable.domain.*;
 
 import java.time.LocalTime;
@@ -14,6 +16,26 @@ import static ai.timefold.solver.core.api.score.stream.ConstraintCollectors.coun
 
 public class TimeTableConstraintProvider implements ConstraintProvider {
 
+    // Ierobežojumu nosaukumi, kopīgi ar TimeTableIncrementalScoreCalculator un hardOnlyWeights()
+    public static final String TEACHER_CONFLICT = "Teacher cannot teach two lessons at the same time";
+    public static final String ROOM_CONFLICT = "A room cannot host two lessons at the same time.";
+    public static final String STUDENT_GROUP_CONFLICT = "A student group cannot attend two lessons at the same time";
+    public static final String ROOM_TYPE_MATCH = "The assigned room must match the required RoomType";
+    public static final String QUALIFIED_UNIT_MATCH = "Teacher must be qualified to teach the subject";
+    public static final String TEACHER_AVAILABILITY = "Teacher must be available at the assigned time slot";
+    public static final String DAILY_LESSON_COUNT_LIMIT = "Daily lesson count limit for lesson exceeded";
+    public static final String SUBJECT_MUST_BE_CONSECUTIVE = "Subject must be consecutive";
+    public static final String STUDENT_LUNCH_BREAK = "No lessons during lunch break";
+    public static final String ONE_ROOM_PER_UNIT = "One room for teachingUnit preference";
+    public static final String TEACHER_ROOM_STABILITY = "Teachers prefer to teach in their Home Room";
+    public static final String STUDENT_GAPS = "Student gaps per day (ignoring lunch)";
+    public static final String TEACHER_GAPS = "Teacher gaps per day";
+    public static final String LESS_LESSONS_BEFORE = "Evenly spread lessons per day";
+    public static final String BALANCED_LESSONS_PER_DAY = "Balanced lessons per day";
+
+    public static final List<String> SOFT_CONSTRAINTS = List.of(ONE_ROOM_PER_UNIT, TEACHER_ROOM_STABILITY, STUDENT_GAPS,
+            TEACHER_GAPS, LESS_LESSONS_BEFORE, BALANCED_LESSONS_PER_DAY);
+
     @Override
     public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
         return new Constraint[]{
@@ -25,7 +47,6 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 qualifiedUnitMatch(constraintFactory),
                 teacherAvailability(constraintFactory),
                 dailyLessonCountLimit(constraintFactory),
-                maxOneTeacherPerSchoolClassPerUnit(constraintFactory),
                 subjectMustBeConsecutive(constraintFactory),
                 studentLunchBreak(constraintFactory),
 
@@ -39,51 +60,49 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
         };
     }
 
+    // Visiem mīkstajiem ierobežojumiem svars 0: Bavet tos neizvērtē, tāpēc gājieni tiek vērtēti tikai ar cietajiem
+    public static ConstraintWeightOverrides<HardSoftScore> hardOnlyWeights() {
+        Map<String, HardSoftScore> weights = new LinkedHashMap<>();
+        for (String name : SOFT_CONSTRAINTS) {
+            weights.put(name, HardSoftScore.ZERO);
+        }
+        return ConstraintWeightOverrides.of(weights);
+    }
+
     // Skolotājs nevar vienlaicīgi pasniegt divas stundas
     Constraint teacherConflict(ConstraintFactory constraintFactory) {
-        return constraintFactory.forEachUniquePair(
-                        Lesson.class,
-                        Joiners.equal(Lesson::getTeacher),
-                        Joiners.equal(Lesson::getTimeSlot)
-                )
-                .penalize(HardSoftScore.ONE_HARD)
-                .asConstraint("Teacher cannot teach two lessons at the same time");
+        return overlappingPairs(constraintFactory, Lesson::getTeacher)
+                // Ēnas skolotājs ir null, kamēr ClassUnitAssignment vēl nav piešķirts
+                .filter((lesson, other) -> lesson.getTeacher() != null)
+                .penalize(HardSoftScore.ONE_HARD, TimeTableConstraintProvider::overlap)
+                .asConstraint(TEACHER_CONFLICT);
     }
 
     // Telpā nevar notikt divas stundas vienlaicīgi
     Constraint roomConflict(ConstraintFactory constraintFactory) {
-        return constraintFactory.forEachUniquePair(
-                        Lesson.class,
-                        Joiners.equal(Lesson::getRoom),
-                        Joiners.equal(Lesson::getTimeSlot)
-                )
-                .penalize(HardSoftScore.ONE_HARD)
-                .asConstraint("A room cannot host two lessons at the same time.");
+        return overlappingPairs(constraintFactory, Lesson::getRoom)
+                .penalize(HardSoftScore.ONE_HARD, TimeTableConstraintProvider::overlap)
+                .asConstraint(ROOM_CONFLICT);
     }
 
     //Pusdienu laikā nedrīskt notikt stundas
     Constraint studentLunchBreak(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getTimeSlot() != null)
-                .join(LunchGroup.class,
-                        Joiners.filtering((lesson, lunchGroup) ->
-                                lesson.getSchoolClass().getGrade() >= lunchGroup.getMinGrade() &&
-                                        lesson.getSchoolClass().getGrade() <= lunchGroup.getMaxGrade()))
-                .filter((lesson, lunchGroup) ->
-                        lunchGroup.getLunchTimeSlots().contains(lesson.getTimeSlot()))
-                .penalize(HardSoftScore.ofHard(100))
-                .asConstraint("No lessons during lunch break");
+                .filter(lesson -> lesson.getSchoolClass().getLunchGroup() != null)
+                .filter(lesson -> (lesson.getSchoolClass().getLunchGroup().lunchMask(lesson.getTimeSlot().getDayIndex())
+                        & lesson.getPeriodMask()) != 0L)
+                .penalize(HardSoftScore.ofHard(100), lesson -> Long.bitCount(
+                        lesson.getSchoolClass().getLunchGroup().lunchMask(lesson.getTimeSlot().getDayIndex())
+                                & lesson.getPeriodMask()))
+                .asConstraint(STUDENT_LUNCH_BREAK);
     }
 
     // Stundentu grupa nevar apmeklēt divas stundas vienlaicīgi
     Constraint studentGroupConflict(ConstraintFactory constraintFactory) {
-        return constraintFactory.forEachUniquePair(
-                        Lesson.class,
-                        Joiners.equal(Lesson::getSchoolClass),
-                        Joiners.equal(Lesson::getTimeSlot)
-                )
-                .penalize(HardSoftScore.ONE_HARD)
-                .asConstraint("A student group cannot attend two lessons at the same time");
+        return overlappingPairs(constraintFactory, Lesson::getSchoolClass)
+                .penalize(HardSoftScore.ONE_HARD, TimeTableConstraintProvider::overlap)
+                .asConstraint(STUDENT_GROUP_CONFLICT);
     }
 
     // Telpai jāatbilst nepieciešamajam telpas tipam
@@ -91,8 +110,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
         return constraintFactory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getRoom() != null)
                 .filter(lesson -> lesson.getTeachingUnit().getRoomType() != lesson.getRoom().getRoomType())
-                .penalize(HardSoftScore.ONE_HARD)
-                .asConstraint("The assigned room must match the required RoomType");
+                .penalize(HardSoftScore.ONE_HARD, Lesson::getPeriods)
+                .asConstraint(ROOM_TYPE_MATCH);
     }
 
     // Skolotājs drīkst pasniegt noteikto stundu
@@ -100,9 +119,9 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
         return constraintFactory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getTeachingUnit() != null)
                 .filter(lesson -> lesson.getTeacher() != null)
-                .filter(lesson -> !lesson.getTeacher().getQualifiedUnits().contains(lesson.getTeachingUnit()))
-                .penalize(HardSoftScore.ONE_HARD)
-                .asConstraint("Teacher must be qualified to teach the subject");
+                .filter(lesson -> !lesson.getTeacher().isQualifiedFor(lesson.getTeachingUnit()))
+                .penalize(HardSoftScore.ONE_HARD, Lesson::getPeriods)
+                .asConstraint(QUALIFIED_UNIT_MATCH);
     }
 
     // Skolotājam jābūt pieejamam
@@ -110,9 +129,11 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
         return constraintFactory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getTimeSlot() != null)
                 .filter(lesson -> lesson.getTeacher() != null)
-                .filter(lesson -> !lesson.getTeacher().getWorkTimeSlots().contains(lesson.getTimeSlot()))
-                .penalize(HardSoftScore.ONE_HARD)
-                .asConstraint("Teacher must be available at the assigned time slot");
+                .filter(lesson -> lesson.getPeriods() == 1
+                        ? !lesson.getTeacher().isAvailable(lesson.getTimeSlot())
+                        : unavailablePeriods(lesson) > 0)
+                .penalize(HardSoftScore.ONE_HARD, lesson -> lesson.getPeriods() == 1 ? 1 : unavailablePeriods(lesson))
+                .asConstraint(TEACHER_AVAILABILITY);
     }
 
     // Priekšmeta stundu skaits nedrīkst pārsniegt dienas limitu
@@ -123,7 +144,7 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         Lesson::getSchoolClass,
                         lesson -> lesson.getTeachingUnit().getSubject(),
                         lesson -> lesson.getTimeSlot().getSchoolDay(),
-                        ConstraintCollectors.count()
+                        ConstraintCollectors.sum(Lesson::getPeriods)
                 )
                 .filter((schoolClass, subject, day, count) -> {
                     int limit = subject.isAllowMultiplePerDay() ? 2 : 1;
@@ -134,7 +155,7 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                             int limit = subject.isAllowMultiplePerDay() ? 2 : 1;
                             return count - limit;
                         })
-                .asConstraint("Daily lesson count limit for lesson exceeded");
+                .asConstraint(DAILY_LESSON_COUNT_LIMIT);
     }
 
     // Noteiktiem priekšmetiem jānotiek 2 stundām pēc kārtas
@@ -144,27 +165,19 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getTeachingUnit().getSubject().isMustBeConsecutive())
                 .groupBy(Lesson::getSchoolClass,
                         lesson -> lesson.getTeachingUnit().getSubject(),
-                        // CHANGE: Collect the actual TimeSlot objects, not just IDs
-                        ConstraintCollectors.toList(Lesson::getTimeSlot))
+                        OccupancyCollectors.weekOccupancy(
+                                (Lesson lesson) -> lesson.getTimeSlot().getDayIndex(),
+                                (Lesson lesson) -> lesson.getTimeSlot().getPeriodIndex(),
+                                Lesson::getSpan),
+                        // Bloka periodi, kas dienas beigās neietilpst
+                        ConstraintCollectors.sum((Lesson lesson) -> lesson.getPeriods() - lesson.getSpan()))
+                .filter((schoolClass, subject, occupiedMasks, lostPeriods) ->
+                        lostPeriods > 0 || calculateNonConsecutivePenalty(occupiedMasks) > 0)
                 .penalize(HardSoftScore.ONE_HARD,
-                        (schoolClass, subject, slots) -> {
-                            return calculateNonConsecutivePenalty((List<TimeSlot>) slots);
+                        (schoolClass, subject, occupiedMasks, lostPeriods) -> {
+                            return calculateNonConsecutivePenalty(occupiedMasks) + lostPeriods;
                         })
-                .asConstraint("Subject must be consecutive");
-    }
-
-    // Vienu priekšmetu vienmēr pasniedz viens un tas pats skolotājs
-    Constraint maxOneTeacherPerSchoolClassPerUnit(ConstraintFactory constraintFactory) {
-        return constraintFactory.forEach(Lesson.class)
-                .filter(lesson -> lesson.getTeacher() != null)
-                .groupBy(
-                        Lesson::getSchoolClass,
-                        Lesson::getTeachingUnit,
-                        ConstraintCollectors.countDistinct(Lesson::getTeacher)
-                )
-                .filter((schoolClass, teachingUnit, distinctTeacherCount) -> distinctTeacherCount > 1)
-                .penalize(HardSoftScore.ONE_HARD, (schoolClass, teachingUnit, distinctTeacherCount) -> distinctTeacherCount - 1)
-                .asConstraint("One teacher per unit per class");
+                .asConstraint(SUBJECT_MUST_BE_CONSECUTIVE);
     }
 
     // Priekšmetu vajadzētu pasniegt tajā pašā telpā
@@ -178,52 +191,48 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 )
                 .filter((schoolClass, teachingUnit, distinctRoomCount) -> distinctRoomCount > 1)
                 .penalize(HardSoftScore.ONE_SOFT, (schoolClass, teachingUnit, distinctRoomCount) -> (distinctRoomCount - 1) * 3)
-                .asConstraint("One room for teachingUnit preference");
+                .asConstraint(ONE_ROOM_PER_UNIT);
     }
 
     // Skolotājam vēlas pasniegt stundu savā klasē
     Constraint teacherRoomStability(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getRoom() != null)
+                .filter(lesson -> lesson.getTeacher() != null)
                 .filter(lesson -> lesson.getTeacher().getHomeRoom() != null)
                 .filter(lesson -> !lesson.getRoom().getId().equals(lesson.getTeacher().getHomeRoom().getId()))
-                .penalize(HardSoftScore.ONE_SOFT)
-                .asConstraint("Teachers prefer to teach in their Home Room");
+                .penalize(HardSoftScore.ONE_SOFT, Lesson::getPeriods)
+                .asConstraint(TEACHER_ROOM_STABILITY);
     }
 
     // Skolēni nevēlas brīvas starpstundas
     Constraint studentGaps(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getTimeSlot() != null)
-                .join(LunchGroup.class,
-                        Joiners.filtering((lesson, lunchGroup) ->
-                                lesson.getSchoolClass().getGrade() >= lunchGroup.getMinGrade() &&
-                                        lesson.getSchoolClass().getGrade() <= lunchGroup.getMaxGrade()))
-                .groupBy(
-                        (lesson, lunchGroup) -> lesson.getSchoolClass(),
-                        (lesson, lunchGroup) -> lesson.getTimeSlot().getSchoolDay(),
-                        (lesson, lunchGroup) -> lunchGroup,
-                        ConstraintCollectors.toList((lesson, lunchGroup) -> lesson.getTimeSlot().getId())
-                )
+                .filter(lesson -> lesson.getSchoolClass().getLunchGroup() != null)
+                .groupBy(Lesson::getSchoolClass,
+                        lesson -> lesson.getTimeSlot().getDayIndex(),
+                        OccupancyCollectors.occupancy((Lesson lesson) -> lesson.getTimeSlot().getPeriodIndex(), Lesson::getSpan))
                 .penalize(HardSoftScore.ONE_SOFT,
-                        (schoolClass, day, lunchGroup, slotIds) -> {
-                            return calculateGapsIgnoringLunch(slotIds, lunchGroup) * 3;
+                        (schoolClass, dayIndex, occupiedMask) -> {
+                            return calculateGaps(occupiedMask, schoolClass.getLunchGroup().lunchMask(dayIndex)) * 3;
                         })
-                .asConstraint("Student gaps per day (ignoring lunch)");
+                .asConstraint(STUDENT_GAPS);
     }
 
     // Skolotāji nevēlas brīvas starpstundas
     Constraint teacherGaps(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getTimeSlot() != null)
+                .filter(lesson -> lesson.getTeacher() != null)
                 .groupBy(Lesson::getTeacher,
                         lesson -> lesson.getTimeSlot().getSchoolDay(),
-                        ConstraintCollectors.toList(lesson -> lesson.getTimeSlot().getId()))
+                        OccupancyCollectors.occupancy((Lesson lesson) -> lesson.getTimeSlot().getPeriodIndex(), Lesson::getSpan))
                 .penalize(HardSoftScore.ONE_SOFT,
-                        (teacher, day, slotIds) -> {
-                            return calculateGaps(slotIds);
+                        (teacher, day, occupiedMask) -> {
+                            return calculateGaps(occupiedMask, 0L);
                         })
-                .asConstraint("Teacher gaps per day");
+                .asConstraint(TEACHER_GAPS);
     }
 
     // Skolēni vēlas pēc iespējas īsāku dienu
@@ -232,13 +241,13 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getTimeSlot() != null)
                 .groupBy(Lesson::getSchoolClass,
                         lesson -> lesson.getTimeSlot().getSchoolDay(),
-                        ConstraintCollectors.toList(lesson -> lesson.getTimeSlot().getId()))
+                        OccupancyCollectors.occupancy((Lesson lesson) -> lesson.getTimeSlot().getPeriodIndex(), Lesson::getSpan))
                 .penalize(HardSoftScore.ONE_SOFT,
-                        (schoolClass, day, slotIds) -> {
-                            int startPenalty = dayStartPenalty(slotIds);
+                        (schoolClass, day, occupiedMask) -> {
+                            int startPenalty = dayStartPenalty(occupiedMask);
                             return startPenalty * startPenalty;
                         })
-                .asConstraint("Evenly spread lessons per day");
+                .asConstraint(LESS_LESSONS_BEFORE);
     }
 
     //Skolēni vēlas apmēram vienādu stundu skaitu dienā
@@ -246,111 +255,75 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
         return constraintFactory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getTimeSlot() != null)
                 .groupBy(Lesson::getSchoolClass,
-                        ConstraintCollectors.toList())
-                .penalize(HardSoftScore.ONE_SOFT,
-                        (schoolClass, lessons) -> {
-                            return calculateWeeklyVariancePenalty(lessons);
-                        })
-                .asConstraint("Balanced lessons per day");
+                        OccupancyCollectors.dayBalance((Lesson lesson) -> lesson.getTimeSlot().getDayIndex(), Lesson::getPeriods))
+                .penalize(HardSoftScore.ONE_SOFT, (schoolClass, penalty) -> penalty)
+                .asConstraint(BALANCED_LESSONS_PER_DAY);
     }
 
     // helper functions
-    private int calculateGaps(List<Long> slotIds) {
-        if (slotIds.isEmpty()) return 0;
-        long firstSlot = Collections.min(slotIds);
-        long lastSlot = Collections.max(slotIds);
-        long span = lastSlot - firstSlot + 1;
-        long distinctSlotCount = slotIds.stream().distinct().count();
-        return Math.max(0, (int) (span - distinctSlotCount));
+    // Stundu pāri ar vienu key, kuru laiki [ordinal, endOrdinal) pārklājas. Pāri ar vienu sākuma laiku atrod
+    // Joiners.equal(timeSlot); pārējos var sākt tikai bloks, tāpēc tos meklē tikai no blokiem tās pašas dienas stundās
+    // (Joiners.overlapping visām stundām risināšanu palēnināja vairākas reizes)
+    private static <K> BiConstraintStream<Lesson, Lesson> overlappingPairs(ConstraintFactory constraintFactory,
+                                                                           Function<Lesson, K> key) {
+        return constraintFactory.forEachUniquePair(
+                        Lesson.class,
+                        Joiners.equal(key),
+                        Joiners.equal(Lesson::getTimeSlot))
+                .concat(constraintFactory.forEach(Lesson.class)
+                        .filter(lesson -> lesson.getPeriods() > 1)
+                        .join(Lesson.class,
+                                Joiners.equal(key),
+                                Joiners.equal(lesson -> lesson.getTimeSlot().getDayIndex()),
+                                Joiners.filtering((block, other) ->
+                                        other.getTimeSlot().getOrdinal() > block.getTimeSlot().getOrdinal()
+                                                && other.getTimeSlot().getOrdinal() < block.getEndOrdinal())));
     }
 
-    private int calculateNonConsecutivePenalty(List<TimeSlot> slots) {
-        if (slots.size() < 2) return 0;
-
-        Map<SchoolDay, List<TimeSlot>> slotsByDay = slots.stream()
-                .collect(Collectors.groupingBy(TimeSlot::getSchoolDay));
-
-        int penalty = 0;
-
-        if (slotsByDay.size() > 1) {
-            penalty += 10 * (slotsByDay.size() - 1);
-        }
-
-        for (List<TimeSlot> daySlots : slotsByDay.values()) {
-
-            daySlots.sort(Comparator.comparingLong(TimeSlot::getId));
-
-            for (int i = 0; i < daySlots.size() - 1; i++) {
-                long currentId = daySlots.get(i).getId();
-                long nextId = daySlots.get(i + 1).getId();
-
-                long diff = nextId - currentId;
-
-                if (diff > 1) {
-                    penalty += (int) (diff - 1);
-                }
-            }
-        }
-        return penalty;
+    // Kopīgo periodu skaits; vienas stundas konfliktam tas ir 1
+    static int overlap(Lesson lesson, Lesson other) {
+        return Math.min(lesson.getEndOrdinal(), other.getEndOrdinal())
+                - Math.max(lesson.getTimeSlot().getOrdinal(), other.getTimeSlot().getOrdinal());
     }
 
-    private int dayStartPenalty(List<Long> slotIds) {
-        if (slotIds.isEmpty()) return 0;
-        Long minAbsoluteId = Collections.min(slotIds);
-        long normalizedId = ((minAbsoluteId - 1) % 10);
-        if (normalizedId > 0) {
-            return (int) normalizedId;
-        } else {
-            return 0;
-        }
+    private static int unavailablePeriods(Lesson lesson) {
+        int start = lesson.getTimeSlot().getOrdinal();
+        return lesson.getTeacher().unavailableCount(start, start + lesson.getSpan());
     }
 
-    private int calculateWeeklyVariancePenalty(List<Lesson> lessons) {
-        double totalLessons = lessons.size();
-
-        double averagePerDay = totalLessons / 5.0;
-
-        Map<SchoolDay, Long> countPerDayMap = lessons.stream()
-                .collect(Collectors.groupingBy(
-                        lesson -> lesson.getTimeSlot().getSchoolDay(),
-                        Collectors.counting()
-                ));
-
-        double totalPenalty = 0;
-
-        for (SchoolDay day : SchoolDay.values()) {
-
-            long actualCount = countPerDayMap.getOrDefault(day, 0L);
-
-            double diff = Math.abs(averagePerDay - actualCount);
-            double term = diff * 2;
-            totalPenalty += (term * term);
-        }
-
-        return (int) totalPenalty;
+    // Brīvie periodi starp pirmo un pēdējo aizņemto periodu, neskaitot ignorējamos (piem., pusdienas)
+    static int calculateGaps(long occupiedMask, long ignoredMask) {
+        if (occupiedMask == 0L) return 0;
+        int first = Long.numberOfTrailingZeros(occupiedMask);
+        int last = Long.SIZE - 1 - Long.numberOfLeadingZeros(occupiedMask);
+        long spanMask = (-1L >>> (Long.SIZE - 1 - last)) & (-1L << first);
+        return Long.bitCount(spanMask & ~occupiedMask & ~ignoredMask);
     }
 
-    private int calculateGapsIgnoringLunch(List<Long> occupiedSlotIds, LunchGroup lunchGroup) {
-        if (occupiedSlotIds.isEmpty() || occupiedSlotIds.size() < 2) return 0;
-
-        occupiedSlotIds.sort(Long::compareTo);
-        long firstSlotId = occupiedSlotIds.get(0);
-        long lastSlotId = occupiedSlotIds.get(occupiedSlotIds.size() - 1);
-
-        Set<Long> lunchSlotIds = lunchGroup.getLunchTimeSlots().stream()
-                .map(TimeSlot::getId)
-                .collect(Collectors.toSet());
+    static int calculateNonConsecutivePenalty(long[] occupiedMasks) {
+        return calculateNonConsecutivePenalty(occupiedMasks, 0, occupiedMasks.length);
+    }
 
+    // Masku apakšmasīvs [from, to) - inkrementālajam kalkulatoram, kas visas grupas glabā vienā masīvā
+    static int calculateNonConsecutivePenalty(long[] occupiedMasks, int from, int to) {
         int penalty = 0;
+        int dayCount = 0;
 
-        for (long slotId = firstSlotId + 1; slotId < lastSlotId; slotId++) {
-            if (!occupiedSlotIds.contains(slotId)) {
-                if (!lunchSlotIds.contains(slotId)) {
-                    penalty++;
-                }
-            }
+        for (int i = from; i < to; i++) {
+            long dayMask = occupiedMasks[i];
+            if (dayMask == 0L) continue;
+            dayCount++;
+            penalty += calculateGaps(dayMask, 0L);
         }
 
+        if (dayCount > 1) {
+            penalty += 10 * (dayCount - 1);
+        }
         return penalty;
     }
+
+    static int dayStartPenalty(long occupiedMask) {
+        if (occupiedMask == 0L) return 0;
+        return Long.numberOfTrailingZeros(occupiedMask);
+    }
 }
\ No newline at end of file
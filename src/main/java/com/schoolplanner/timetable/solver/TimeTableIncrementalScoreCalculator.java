@@ -0,0 +1,533 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.domain.solution.ConstraintWeightOverrides;
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.score.calculator.ConstraintMatchAwareIncrementalScoreCalculator;
+import ai.timefold.solver.core.api.score.constraint.ConstraintMatchTotal;
+import ai.timefold.solver.core.api.score.constraint.ConstraintRef;
+import ai.timefold.solver.core.api.score.constraint.Indictment;
+import ai.timefold.solver.core.impl.score.constraint.DefaultConstraintMatchTotal;
+import com.schoolplanner.timetable.domain.*;
+
+import java.util.*;
+
+import static com.schoolplanner.timetable.solver.TimeTableConstraintProvider.*;
+
+// Alternatīva TimeTableConstraintProvider: tie paši ierobežojumi ar tiem pašiem nosaukumiem un svariem,
+// bet stāvoklis glabājas primitīvos masīvos (skolotājs×laiks, telpa×laiks, klase×laiks, klase×diena, ...)
+// un tiek atjaunots tikai mainītajai stundai. Ieslēdz ar timetable.solver.score-engine=incremental.
+public class TimeTableIncrementalScoreCalculator
+        implements ConstraintMatchAwareIncrementalScoreCalculator<TimeTable, HardSoftScore> {
+
+    private static final String CONSTRAINT_PACKAGE = TimeTable.class.getPackageName();
+
+    private static final int LUNCH_BREAK_WEIGHT = 100;
+    private static final int SUBJECTS = Subject.values().length;
+
+    private int hardScore;
+    private int softScore;
+    // false, ja ConstraintWeightOverrides visiem mīkstajiem ierobežojumiem uzstāda svaru 0
+    private boolean softEnabled;
+
+    // Izmēri
+    private int slotCount;
+    private int dayCount;
+    private int periodCount;
+    private int teacherCount;
+    private int roomCount;
+
+    // Faktu indeksi (identitāte, tāpat kā Joiners.equal ierobežojumos)
+    private TimeTable workingSolution;
+    private Map<Lesson, Integer> lessonIndex;
+    private Map<Teacher, Integer> teacherIndex;
+    private Map<Room, Integer> roomIndex;
+    private List<Teacher> teachers;
+    private List<SchoolClass> schoolClasses;
+    private SchoolDay[] dayByIndex;
+
+    // Katras stundas nemainīgā informācija
+    private int[] lessonClass;
+    private int[] lessonClassUnit; // (klase, mācību vienība) pāris
+    private int[] lessonConsecutiveGroup; // (klase, priekšmets) grupa vai -1
+    private Lesson[] lessons;
+
+    // Konflikti: cik stundu katrā šūnā
+    private int[] teacherSlotCount;
+    private int[] roomSlotCount;
+    private int[] classSlotCount;
+
+    // dailyLessonCountLimit: (klase, priekšmets, diena)
+    private int[] classSubjectDayCount;
+
+    // schoolClassLessonRoomStability: (klase, vienība) × telpa
+    private int classUnitCount;
+    private int[] classUnitRoomCount;
+    private int[] classUnitDistinctRooms;
+
+    // subjectMustBeConsecutive: (klase, priekšmets) × diena × periods
+    private int consecutiveGroupCount;
+    private int[] consecutivePeriodCount;
+    private long[] consecutiveMask;
+    private int[] consecutiveLostPeriods; // bloku periodi, kas dienas beigās neietilpst
+    private int[] consecutivePenalty;
+
+    // studentGaps / lessLessonsBefore / balancedLessonsPerDay: klase × diena
+    private int[] classPeriodCount;
+    private long[] classDayMask;
+    private int[] classDayCount;
+    private int[] classLessonCount;
+    private int[] classSumOfSquares;
+
+    // teacherGaps: skolotājs × diena
+    private int[] teacherPeriodCount;
+    private long[] teacherDayMask;
+
+    @Override
+    public void resetWorkingSolution(TimeTable workingSolution) {
+        resetWorkingSolution(workingSolution, false);
+    }
+
+    @Override
+    public void resetWorkingSolution(TimeTable workingSolution, boolean constraintMatchEnabled) {
+        this.workingSolution = workingSolution;
+        hardScore = 0;
+        softScore = 0;
+        softEnabled = isSoftEnabled(workingSolution.getConstraintWeightOverrides());
+
+        slotCount = 0;
+        dayCount = 0;
+        periodCount = 0;
+        dayByIndex = new SchoolDay[SchoolDay.values().length];
+        for (TimeSlot timeSlot : workingSolution.getTimeSlots()) {
+            if (!timeSlot.isIndexed()) {
+                throw new IllegalStateException("Time slot " + timeSlot.getId() + " is not indexed, run ProblemIndexer first.");
+            }
+            slotCount = Math.max(slotCount, timeSlot.getOrdinal() + 1);
+            dayCount = Math.max(dayCount, timeSlot.getDayIndex() + 1);
+            periodCount = Math.max(periodCount, timeSlot.getPeriodIndex() + 1);
+            dayByIndex[timeSlot.getDayIndex()] = timeSlot.getSchoolDay();
+        }
+
+        teachers = new ArrayList<>(workingSolution.getTeachers());
+        teacherIndex = new IdentityHashMap<>();
+        for (int i = 0; i < teachers.size(); i++) {
+            teacherIndex.put(teachers.get(i), i);
+        }
+        teacherCount = teachers.size();
+        roomIndex = new IdentityHashMap<>();
+        for (Room room : workingSolution.getRooms()) {
+            roomIndex.put(room, roomIndex.size());
+        }
+        roomCount = roomIndex.size();
+
+        List<Lesson> lessonList = workingSolution.getLessons();
+        lessons = lessonList.toArray(new Lesson[0]);
+        lessonIndex = new IdentityHashMap<>();
+        lessonClass = new int[lessons.length];
+        lessonClassUnit = new int[lessons.length];
+        lessonConsecutiveGroup = new int[lessons.length];
+        schoolClasses = new ArrayList<>();
+        Map<SchoolClass, Integer> classIndex = new IdentityHashMap<>();
+        Map<List<Object>, Integer> classUnitIndex = new HashMap<>();
+        Map<List<Object>, Integer> consecutiveIndex = new HashMap<>();
+        for (int i = 0; i < lessons.length; i++) {
+            Lesson lesson = lessons[i];
+            lessonIndex.put(lesson, i);
+            SchoolClass schoolClass = lesson.getSchoolClass();
+            int c = classIndex.computeIfAbsent(schoolClass, k -> {
+                schoolClasses.add(k);
+                return schoolClasses.size() - 1;
+            });
+            lessonClass[i] = c;
+            lessonClassUnit[i] = classUnitIndex.computeIfAbsent(List.of(c, lesson.getTeachingUnit()), k -> classUnitIndex.size());
+            Subject subject = lesson.getTeachingUnit().getSubject();
+            lessonConsecutiveGroup[i] = subject.isMustBeConsecutive()
+                    ? consecutiveIndex.computeIfAbsent(List.of(c, subject), k -> consecutiveIndex.size())
+                    : -1;
+        }
+        int classCount = schoolClasses.size();
+        classUnitCount = classUnitIndex.size();
+        consecutiveGroupCount = consecutiveIndex.size();
+
+        teacherSlotCount = new int[teacherCount * slotCount];
+        roomSlotCount = new int[roomCount * slotCount];
+        classSlotCount = new int[classCount * slotCount];
+        classSubjectDayCount = new int[classCount * SUBJECTS * dayCount];
+        classUnitRoomCount = new int[classUnitCount * roomCount];
+        classUnitDistinctRooms = new int[classUnitCount];
+        consecutivePeriodCount = new int[consecutiveGroupCount * dayCount * periodCount];
+        consecutiveMask = new long[consecutiveGroupCount * dayCount];
+        consecutiveLostPeriods = new int[consecutiveGroupCount];
+        consecutivePenalty = new int[consecutiveGroupCount];
+        classPeriodCount = new int[classCount * dayCount * periodCount];
+        classDayMask = new long[classCount * dayCount];
+        classDayCount = new int[classCount * dayCount];
+        classLessonCount = new int[classCount];
+        classSumOfSquares = new int[classCount];
+        teacherPeriodCount = new int[teacherCount * dayCount * periodCount];
+        teacherDayMask = new long[teacherCount * dayCount];
+
+        for (Lesson lesson : lessons) {
+            insert(lesson);
+        }
+    }
+
+    // Atbalstīta ir tikai visu mīksto ierobežojumu izslēgšana (TimeTableConstraintProvider.hardOnlyWeights)
+    private static boolean isSoftEnabled(ConstraintWeightOverrides<HardSoftScore> overrides) {
+        if (overrides == null || overrides.getKnownConstraintNames().isEmpty()) {
+            return true;
+        }
+        for (String name : overrides.getKnownConstraintNames()) {
+            if (!SOFT_CONSTRAINTS.contains(name) || !HardSoftScore.ZERO.equals(overrides.getConstraintWeight(name))) {
+                throw new IllegalStateException("The incremental score calculator does not support the weight override of constraint ("
+                        + name + "), it only supports disabling all soft constraints.");
+            }
+        }
+        if (overrides.getKnownConstraintNames().size() != SOFT_CONSTRAINTS.size()) {
+            throw new IllegalStateException("The incremental score calculator only supports disabling all soft constraints, not "
+                    + overrides.getKnownConstraintNames() + ".");
+        }
+        return false;
+    }
+
+    // Stundu pievieno vai izņem tikai ProblemChange (reti), bet stundu indeksi (klase, vienība, grupa) ir masīvos,
+    // kas veidoti resetWorkingSolution, tāpēc stāvokli pārrēķina no jauna
+    @Override
+    public void beforeEntityAdded(Object entity) {
+    }
+
+    @Override
+    public void afterEntityAdded(Object entity) {
+        resetWorkingSolution(workingSolution);
+    }
+
+    // ClassUnitAssignment.teacher maiņa nonāk šeit arī kā katras tās stundas ēnas mainīgā Lesson.teacher maiņa
+    @Override
+    public void beforeVariableChanged(Object entity, String variableName) {
+        if (entity instanceof Lesson lesson) {
+            retract(lesson);
+        }
+    }
+
+    @Override
+    public void afterVariableChanged(Object entity, String variableName) {
+        if (entity instanceof Lesson lesson) {
+            insert(lesson);
+        }
+    }
+
+    @Override
+    public void beforeEntityRemoved(Object entity) {
+    }
+
+    @Override
+    public void afterEntityRemoved(Object entity) {
+        resetWorkingSolution(workingSolution);
+    }
+
+    @Override
+    public HardSoftScore calculateScore() {
+        return HardSoftScore.of(hardScore, softScore);
+    }
+
+    private void insert(Lesson lesson) {
+        if (isAssigned(lesson)) {
+            update(lesson, 1);
+        }
+    }
+
+    private void retract(Lesson lesson) {
+        if (isAssigned(lesson)) {
+            update(lesson, -1);
+        }
+    }
+
+    // Constraint streams forEach ņem vērā tikai stundas ar visiem plānošanas mainīgajiem piešķirtiem;
+    // ēnas skolotājs var būt null, tad skolotāja ierobežojumi stundu neņem vērā
+    private static boolean isAssigned(Lesson lesson) {
+        return lesson.getTimeSlot() != null && lesson.getRoom() != null;
+    }
+
+    // delta = +1 ievietojot, -1 izņemot
+    private void update(Lesson lesson, int delta) {
+        int i = lessonIndex.get(lesson);
+        Teacher teacher = lesson.getTeacher();
+        TimeSlot timeSlot = lesson.getTimeSlot();
+        Room room = lesson.getRoom();
+        TeachingUnit unit = lesson.getTeachingUnit();
+        SchoolClass schoolClass = lesson.getSchoolClass();
+        int t = teacher == null ? -1 : teacherIndex.get(teacher);
+        int r = roomIndex.get(room);
+        int c = lessonClass[i];
+        int slot = timeSlot.getOrdinal();
+        int day = timeSlot.getDayIndex();
+        int period = timeSlot.getPeriodIndex();
+        // Bloks aizņem laikus [slot, slot + span); periods - span no tā dienā neietilpst
+        int periods = lesson.getPeriods();
+        int span = lesson.getSpan();
+
+        // Konflikti: n stundas vienā šūnā dod n*(n-1)/2 pārus; pa visām šūnām tas ir pāru pārklāšanās periodu skaits
+        for (int s = slot; s < slot + span; s++) {
+            if (teacher != null) {
+                hardScore -= pairDelta(teacherSlotCount, t * slotCount + s, delta);
+            }
+            hardScore -= pairDelta(roomSlotCount, r * slotCount + s, delta);
+            hardScore -= pairDelta(classSlotCount, c * slotCount + s, delta);
+        }
+
+        // Vienas stundas ierobežojumi
+        if (unit.getRoomType() != room.getRoomType()) {
+            hardScore -= periods * delta;
+        }
+        if (teacher != null && !teacher.isQualifiedFor(unit)) {
+            hardScore -= periods * delta;
+        }
+        if (teacher != null) {
+            hardScore -= teacher.unavailableCount(slot, slot + span) * delta;
+        }
+        LunchGroup lunchGroup = schoolClass.getLunchGroup();
+        if (lunchGroup != null) {
+            hardScore -= LUNCH_BREAK_WEIGHT * Long.bitCount(lunchGroup.lunchMask(day) & lesson.getPeriodMask()) * delta;
+        }
+
+        // Priekšmeta stundu skaits dienā
+        Subject subject = unit.getSubject();
+        int limit = subject.isAllowMultiplePerDay() ? 2 : 1;
+        int subjectDay = (c * SUBJECTS + subject.ordinal()) * dayCount + day;
+        int oldCount = classSubjectDayCount[subjectDay];
+        int newCount = oldCount + periods * delta;
+        classSubjectDayCount[subjectDay] = newCount;
+        hardScore -= Math.max(0, newCount - limit) - Math.max(0, oldCount - limit);
+
+        // Priekšmeti, kuriem jānotiek pēc kārtas
+        int group = lessonConsecutiveGroup[i];
+        if (group >= 0) {
+            occupy(consecutivePeriodCount, consecutiveMask, group * dayCount + day, period, span, delta);
+            consecutiveLostPeriods[group] += (periods - span) * delta;
+            int penalty = TimeTableConstraintProvider.calculateNonConsecutivePenalty(
+                    consecutiveMask, group * dayCount, (group + 1) * dayCount) + consecutiveLostPeriods[group];
+            hardScore -= penalty - consecutivePenalty[group];
+            consecutivePenalty[group] = penalty;
+        }
+
+        if (!softEnabled) {
+            return;
+        }
+
+        if (teacher != null && teacher.getHomeRoom() != null && !room.getId().equals(teacher.getHomeRoom().getId())) {
+            softScore -= periods * delta;
+        }
+        // Telpu skaits katram (klase, vienība) pārim
+        int classUnit = lessonClassUnit[i];
+        int oldRooms = classUnitDistinctRooms[classUnit];
+        int newRooms = oldRooms + distinctDelta(classUnitRoomCount, classUnit * roomCount + r, delta);
+        classUnitDistinctRooms[classUnit] = newRooms;
+        softScore -= (Math.max(0, newRooms - 1) - Math.max(0, oldRooms - 1)) * 3;
+
+        // Klases diena: starpstundas, dienas sākums, stundu sadalījums pa dienām
+        int classDay = c * dayCount + day;
+        softScore += classDayPenalty(schoolClass, day, classDayMask[classDay]);
+        occupy(classPeriodCount, classDayMask, classDay, period, span, delta);
+        softScore -= classDayPenalty(schoolClass, day, classDayMask[classDay]);
+
+        softScore += OccupancyCollectors.DayBalance.penalty(classLessonCount[c], classSumOfSquares[c]);
+        int oldDayLessons = classDayCount[classDay];
+        int newDayLessons = oldDayLessons + periods * delta;
+        classSumOfSquares[c] += newDayLessons * newDayLessons - oldDayLessons * oldDayLessons;
+        classDayCount[classDay] = newDayLessons;
+        classLessonCount[c] += periods * delta;
+        softScore -= OccupancyCollectors.DayBalance.penalty(classLessonCount[c], classSumOfSquares[c]);
+
+        // Skolotāja diena: starpstundas
+        if (teacher != null) {
+            int teacherDay = t * dayCount + day;
+            softScore += TimeTableConstraintProvider.calculateGaps(teacherDayMask[teacherDay], 0L);
+            occupy(teacherPeriodCount, teacherDayMask, teacherDay, period, span, delta);
+            softScore -= TimeTableConstraintProvider.calculateGaps(teacherDayMask[teacherDay], 0L);
+        }
+    }
+
+    // Cik pāru stunda pievieno (vai noņem) šūnā ar jau esošajām stundām
+    private static int pairDelta(int[] counts, int index, int delta) {
+        if (delta > 0) {
+            return counts[index]++;
+        }
+        return -(--counts[index]);
+    }
+
+    // +1, ja vērtība grupā parādās, -1, ja pazūd, citādi 0
+    private static int distinctDelta(int[] counts, int index, int delta) {
+        int old = counts[index];
+        counts[index] = old + delta;
+        if (old == 0) return 1;
+        if (old + delta == 0) return -1;
+        return 0;
+    }
+
+    // Periodi [period, period + length)
+    private void occupy(int[] periodCounts, long[] masks, int group, int period, int length, int delta) {
+        for (int p = period; p < period + length; p++) {
+            int index = group * periodCount + p;
+            int old = periodCounts[index];
+            periodCounts[index] = old + delta;
+            if (old == 0) {
+                masks[group] |= 1L << p;
+            } else if (old + delta == 0) {
+                masks[group] &= ~(1L << p);
+            }
+        }
+    }
+
+    private static int classDayPenalty(SchoolClass schoolClass, int day, long mask) {
+        int startPenalty = TimeTableConstraintProvider.dayStartPenalty(mask);
+        int penalty = startPenalty * startPenalty;
+        if (schoolClass.getLunchGroup() != null) {
+            penalty += TimeTableConstraintProvider.calculateGaps(mask, schoolClass.getLunchGroup().lunchMask(day)) * 3;
+        }
+        return penalty;
+    }
+
+    // Paskaidrojumam ierobežojumu atbilstības saliek no jauna no pašreizējā stāvokļa;
+    // to izsauc tikai SolutionManager.explain un FULL_ASSERT, nevis katram gājienam
+    @Override
+    public Collection<ConstraintMatchTotal<HardSoftScore>> getConstraintMatchTotals() {
+        Map<String, DefaultConstraintMatchTotal<HardSoftScore>> totals = new LinkedHashMap<>();
+        for (String name : List.of(TEACHER_CONFLICT, ROOM_CONFLICT, STUDENT_GROUP_CONFLICT, ROOM_TYPE_MATCH,
+                QUALIFIED_UNIT_MATCH, TEACHER_AVAILABILITY, DAILY_LESSON_COUNT_LIMIT,
+                SUBJECT_MUST_BE_CONSECUTIVE)) {
+            totals.put(name, new DefaultConstraintMatchTotal<>(ConstraintRef.of(CONSTRAINT_PACKAGE, name), HardSoftScore.ONE_HARD));
+        }
+        totals.put(STUDENT_LUNCH_BREAK, new DefaultConstraintMatchTotal<>(
+                ConstraintRef.of(CONSTRAINT_PACKAGE, STUDENT_LUNCH_BREAK), HardSoftScore.ofHard(LUNCH_BREAK_WEIGHT)));
+        for (String name : softEnabled ? SOFT_CONSTRAINTS : List.<String>of()) {
+            totals.put(name, new DefaultConstraintMatchTotal<>(ConstraintRef.of(CONSTRAINT_PACKAGE, name), HardSoftScore.ONE_SOFT));
+        }
+
+        // Pāri tiek meklēti dienas ietvaros, jo bloks nepāriet uz nākamo dienu
+        Map<List<Object>, List<Lesson>> teacherDayLessons = new HashMap<>();
+        Map<List<Object>, List<Lesson>> roomDayLessons = new HashMap<>();
+        Map<List<Object>, List<Lesson>> classDayLessons = new HashMap<>();
+        Map<List<Object>, Set<Room>> classUnitRooms = new LinkedHashMap<>();
+        for (int i = 0; i < lessons.length; i++) {
+            Lesson lesson = lessons[i];
+            if (!isAssigned(lesson)) continue;
+            Teacher teacher = lesson.getTeacher();
+            TimeSlot timeSlot = lesson.getTimeSlot();
+            Room room = lesson.getRoom();
+            TeachingUnit unit = lesson.getTeachingUnit();
+            SchoolClass schoolClass = lesson.getSchoolClass();
+            int day = timeSlot.getDayIndex();
+            if (teacher != null) {
+                teacherDayLessons.computeIfAbsent(List.of(teacherIndex.get(teacher), day), k -> new ArrayList<>()).add(lesson);
+            }
+            roomDayLessons.computeIfAbsent(List.of(roomIndex.get(room), day), k -> new ArrayList<>()).add(lesson);
+            classDayLessons.computeIfAbsent(List.of(lessonClass[i], day), k -> new ArrayList<>()).add(lesson);
+            classUnitRooms.computeIfAbsent(List.of(schoolClass, unit), k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(room);
+
+            int periods = lesson.getPeriods();
+            if (unit.getRoomType() != room.getRoomType()) {
+                addMatch(totals, ROOM_TYPE_MATCH, HardSoftScore.ofHard(-periods), lesson);
+            }
+            if (teacher != null && !teacher.isQualifiedFor(unit)) {
+                addMatch(totals, QUALIFIED_UNIT_MATCH, HardSoftScore.ofHard(-periods), lesson);
+            }
+            int unavailable = teacher == null ? 0
+                    : teacher.unavailableCount(timeSlot.getOrdinal(), timeSlot.getOrdinal() + lesson.getSpan());
+            if (unavailable != 0) {
+                addMatch(totals, TEACHER_AVAILABILITY, HardSoftScore.ofHard(-unavailable), lesson);
+            }
+            LunchGroup lunchGroup = schoolClass.getLunchGroup();
+            int lunchPeriods = lunchGroup == null ? 0 : Long.bitCount(lunchGroup.lunchMask(day) & lesson.getPeriodMask());
+            if (lunchPeriods != 0) {
+                addMatch(totals, STUDENT_LUNCH_BREAK, HardSoftScore.ofHard(-LUNCH_BREAK_WEIGHT * lunchPeriods), lesson);
+            }
+            if (softEnabled && teacher != null && teacher.getHomeRoom() != null && !room.getId().equals(teacher.getHomeRoom().getId())) {
+                addMatch(totals, TEACHER_ROOM_STABILITY, HardSoftScore.ofSoft(-periods), lesson);
+            }
+        }
+        addPairMatches(totals, TEACHER_CONFLICT, teacherDayLessons);
+        addPairMatches(totals, ROOM_CONFLICT, roomDayLessons);
+        addPairMatches(totals, STUDENT_GROUP_CONFLICT, classDayLessons);
+        classUnitRooms.forEach((key, distinct) -> {
+            if (softEnabled && distinct.size() > 1) {
+                addMatch(totals, ONE_ROOM_PER_UNIT, HardSoftScore.ofSoft((1 - distinct.size()) * 3), key.get(0), key.get(1));
+            }
+        });
+
+        for (int c = 0; c < schoolClasses.size(); c++) {
+            SchoolClass schoolClass = schoolClasses.get(c);
+            for (int day = 0; day < dayCount; day++) {
+                SchoolDay schoolDay = dayByIndex[day];
+                for (Subject subject : Subject.values()) {
+                    int count = classSubjectDayCount[(c * SUBJECTS + subject.ordinal()) * dayCount + day];
+                    int limit = subject.isAllowMultiplePerDay() ? 2 : 1;
+                    if (count > limit) {
+                        addMatch(totals, DAILY_LESSON_COUNT_LIMIT, HardSoftScore.ofHard(limit - count), schoolClass, subject, schoolDay);
+                    }
+                }
+                long mask = classDayMask[c * dayCount + day];
+                if (schoolClass.getLunchGroup() != null) {
+                    int gaps = TimeTableConstraintProvider.calculateGaps(mask, schoolClass.getLunchGroup().lunchMask(day)) * 3;
+                    if (gaps != 0) {
+                        addMatch(totals, STUDENT_GAPS, HardSoftScore.ofSoft(-gaps), schoolClass, schoolDay);
+                    }
+                }
+                int startPenalty = TimeTableConstraintProvider.dayStartPenalty(mask);
+                if (startPenalty != 0) {
+                    addMatch(totals, LESS_LESSONS_BEFORE, HardSoftScore.ofSoft(-startPenalty * startPenalty), schoolClass, schoolDay);
+                }
+            }
+            int balance = OccupancyCollectors.DayBalance.penalty(classLessonCount[c], classSumOfSquares[c]);
+            if (balance != 0) {
+                addMatch(totals, BALANCED_LESSONS_PER_DAY, HardSoftScore.ofSoft(-balance), schoolClass);
+            }
+        }
+        for (int t = 0; t < teacherCount; t++) {
+            for (int day = 0; day < dayCount; day++) {
+                int gaps = TimeTableConstraintProvider.calculateGaps(teacherDayMask[t * dayCount + day], 0L);
+                if (gaps != 0) {
+                    addMatch(totals, TEACHER_GAPS, HardSoftScore.ofSoft(-gaps), teachers.get(t), dayByIndex[day]);
+                }
+            }
+        }
+        Map<Integer, List<Object>> consecutiveKeys = new HashMap<>();
+        for (int i = 0; i < lessons.length; i++) {
+            if (lessonConsecutiveGroup[i] >= 0) {
+                consecutiveKeys.putIfAbsent(lessonConsecutiveGroup[i],
+                        List.of(lessons[i].getSchoolClass(), lessons[i].getTeachingUnit().getSubject()));
+            }
+        }
+        for (int group = 0; group < consecutiveGroupCount; group++) {
+            if (consecutivePenalty[group] != 0) {
+                List<Object> key = consecutiveKeys.get(group);
+                addMatch(totals, SUBJECT_MUST_BE_CONSECUTIVE, HardSoftScore.ofHard(-consecutivePenalty[group]), key.get(0), key.get(1));
+            }
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    // null - Timefold pats saliek indiktmentus no ierobežojumu atbilstībām
+    @Override
+    public Map<Object, Indictment<HardSoftScore>> getIndictmentMap() {
+        return null;
+    }
+
+    private static void addMatch(Map<String, DefaultConstraintMatchTotal<HardSoftScore>> totals, String constraintName,
+                                 HardSoftScore score, Object... justifications) {
+        totals.get(constraintName).addConstraintMatch(Arrays.asList(justifications), score);
+    }
+
+    private static void addPairMatches(Map<String, DefaultConstraintMatchTotal<HardSoftScore>> totals, String constraintName,
+                                       Map<List<Object>, List<Lesson>> lessonsByDay) {
+        for (List<Lesson> day : lessonsByDay.values()) {
+            for (int a = 0; a < day.size(); a++) {
+                for (int b = a + 1; b < day.size(); b++) {
+                    int overlap = TimeTableConstraintProvider.overlap(day.get(a), day.get(b));
+                    if (overlap > 0) {
+                        addMatch(totals, constraintName, HardSoftScore.ofHard(-overlap), day.get(a), day.get(b));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.schoolplanner.timetable.solver.move;
+
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.SchoolClass;
+import com.schoolplanner.timetable.domain.TimeSlot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Pārbīda klases dienas stundas par vienu periodu agrāk vai vēlāk. Pārbīda visu nepārtraukto klases stundu
+// virkni, kurā ir izvēlētā stunda (dienā bez caurumiem - visas dienas stundas), tāpēc secība un attālumi virknē
+// nemainās, bet caurums pirms vai pēc virknes samazinās. Bloki pārvietojas kopā ar virkni.
+public class BlockShiftMoveIteratorFactory extends LessonGridMoveIteratorFactory {
+
+    static final String MOVE_TYPE = "BlockShiftMove";
+
+    @Override
+    protected LessonTimeSlotsMove createMove(LessonGrid grid, Random random) {
+        Lesson lesson = grid.randomLesson(random);
+        SchoolClass schoolClass = lesson.getSchoolClass();
+        int day = lesson.getTimeSlot().getDayIndex();
+        int first = lesson.getTimeSlot().getPeriodIndex();
+        int end = first + lesson.getSpan();
+        while (isOccupied(grid, schoolClass, day, first - 1)) {
+            first--;
+        }
+        while (isOccupied(grid, schoolClass, day, end)) {
+            end++;
+        }
+        int shift = random.nextBoolean() ? 1 : -1;
+        if (grid.slot(day, shift < 0 ? first - 1 : end) == null) {
+            return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+        }
+
+        List<Lesson> lessons = new ArrayList<>();
+        List<TimeSlot> toTimeSlots = new ArrayList<>();
+        for (int period = first; period < end; period++) {
+            for (Lesson other : grid.occupying(grid.slot(day, period), schoolClass)) {
+                if (other.getTimeSlot().getPeriodIndex() != period) continue; // bloka turpinājums
+                TimeSlot to = grid.slot(day, period + shift);
+                if (to == null || !other.getTimeSlotRange().contains(to)) {
+                    return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+                }
+                lessons.add(other);
+                toTimeSlots.add(to);
+            }
+        }
+        return new LessonTimeSlotsMove(MOVE_TYPE, lessons, toTimeSlots);
+    }
+
+    private static boolean isOccupied(LessonGrid grid, SchoolClass schoolClass, int day, int period) {
+        TimeSlot slot = grid.slot(day, period);
+        return slot != null && !grid.occupying(slot, schoolClass).isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package com.schoolplanner.timetable.solver.move;
+
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.TimeSlot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Vienai klasei samaina divus laikus: visas klases stundas laikā A pārceļ uz B un visas laikā B - uz A.
+// Klases pārējās stundas paliek vietā, tāpēc klases konflikti nerodas un caurumi pārvietojas kopā ar stundām.
+// Bloki (Lesson.periods > 1) nepiedalās.
+public class ClassTimeSlotSwapMoveIteratorFactory extends LessonGridMoveIteratorFactory {
+
+    static final String MOVE_TYPE = "ClassTimeSlotSwapMove";
+
+    @Override
+    protected LessonTimeSlotsMove createMove(LessonGrid grid, Random random) {
+        Lesson lesson = grid.randomLesson(random);
+        List<TimeSlot> range = lesson.getTimeSlotRange();
+        if (range == null || range.isEmpty()) {
+            return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+        }
+        TimeSlot left = lesson.getTimeSlot();
+        TimeSlot right = range.get(random.nextInt(range.size()));
+        if (left == right) {
+            return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+        }
+
+        List<Lesson> lessons = new ArrayList<>();
+        List<TimeSlot> toTimeSlots = new ArrayList<>();
+        if (!addAll(grid.occupying(left, lesson.getSchoolClass()), right, lessons, toTimeSlots)
+                || !addAll(grid.occupying(right, lesson.getSchoolClass()), left, lessons, toTimeSlots)) {
+            return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+        }
+        return new LessonTimeSlotsMove(MOVE_TYPE, lessons, toTimeSlots);
+    }
+
+    private static boolean addAll(List<Lesson> from, TimeSlot to, List<Lesson> lessons, List<TimeSlot> toTimeSlots) {
+        for (Lesson lesson : from) {
+            if (lesson.getPeriods() > 1 || !lesson.getTimeSlotRange().contains(to)) {
+                return false;
+            }
+            lessons.add(lesson);
+            toTimeSlots.add(to);
+        }
+        return true;
+    }
+}
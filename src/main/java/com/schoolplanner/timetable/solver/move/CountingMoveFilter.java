@@ -0,0 +1,45 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.Move;
+import ai.timefold.solver.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Gājienu filtrs, kas izmet gājienus, kuri noteikti ir bezjēdzīgi, pirms tiem tiek pārrēķināts rezultāts, un skaita,
+// cik gājienu izmests. Skaitītāji ir kopīgi visiem risinātājiem (filtra klases nosaukums -> izmesto gājienu skaits).
+public abstract class CountingMoveFilter<Move_ extends Move<TimeTable>> implements SelectionFilter<TimeTable, Move_> {
+
+    private static final Map<String, LongAdder> DROPPED = new ConcurrentHashMap<>();
+
+    private final LongAdder dropped = counter(getClass());
+
+    @Override
+    public boolean accept(ScoreDirector<TimeTable> scoreDirector, Move_ move) {
+        if (isUseless(move)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    protected abstract boolean isUseless(Move_ move);
+
+    public static long droppedCount(Class<?> filterClass) {
+        return counter(filterClass).sum();
+    }
+
+    public static Map<String, Long> droppedCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        DROPPED.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+
+    private static LongAdder counter(Class<?> filterClass) {
+        return DROPPED.computeIfAbsent(filterClass.getSimpleName(), name -> new LongAdder());
+    }
+}
@@ -0,0 +1,65 @@
+package com.schoolplanner.timetable.solver.move;
+
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.TimeSlot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Kempe ķēde starp laikiem A un B: sāk ar vienu stundu laikā A un pievieno visas stundas otrā laikā, kurām ar
+// kādu ķēdes stundu ir kopīgs skolotājs, telpa vai klase. Visas ķēdes stundas apmaina laikus A <-> B, tāpēc
+// skolotāju, telpu un klašu konflikti starp šiem diviem laikiem nerodas, ja to nebija pirms gājiena.
+// Bloki (Lesson.periods > 1) nepiedalās.
+public class KempeChainMoveIteratorFactory extends LessonGridMoveIteratorFactory {
+
+    static final String MOVE_TYPE = "KempeChainMove";
+
+    @Override
+    protected LessonTimeSlotsMove createMove(LessonGrid grid, Random random) {
+        Lesson start = grid.randomLesson(random);
+        List<TimeSlot> range = start.getTimeSlotRange();
+        if (start.getPeriods() > 1 || range == null || range.isEmpty()) {
+            return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+        }
+        TimeSlot left = start.getTimeSlot();
+        TimeSlot right = range.get(random.nextInt(range.size()));
+        if (left == right) {
+            return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+        }
+
+        Set<Lesson> chain = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Lesson> lessons = new ArrayList<>();
+        List<TimeSlot> toTimeSlots = new ArrayList<>();
+        Deque<Lesson> queue = new ArrayDeque<>();
+        chain.add(start);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            Lesson lesson = queue.poll();
+            TimeSlot to = lesson.getTimeSlot() == left ? right : left;
+            if (lesson.getPeriods() > 1 || !lesson.getTimeSlotRange().contains(to)) {
+                return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+            }
+            lessons.add(lesson);
+            toTimeSlots.add(to);
+            for (Lesson other : grid.occupying(to)) {
+                if (!chain.contains(other) && sharesResource(lesson, other)) {
+                    chain.add(other);
+                    queue.add(other);
+                }
+            }
+        }
+        return new LessonTimeSlotsMove(MOVE_TYPE, lessons, toTimeSlots);
+    }
+
+    private static boolean sharesResource(Lesson lesson, Lesson other) {
+        return lesson.getSchoolClass() == other.getSchoolClass()
+                || (lesson.getTeacher() != null && lesson.getTeacher() == other.getTeacher())
+                || (lesson.getRoom() != null && lesson.getRoom() == other.getRoom());
+    }
+}
@@ -0,0 +1,101 @@
+package com.schoolplanner.timetable.solver.move;
+
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.SchoolClass;
+import com.schoolplanner.timetable.domain.Teacher;
+import com.schoolplanner.timetable.domain.TimeSlot;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Darba risinājuma stundas pēc aizņemtajiem laikiem (TimeSlot.ordinal) un laiki pēc (diena, periods).
+// Iteratora fabrikas to izveido katra soļa sākumā: soļa laikā katru izvērtēto gājienu atsauc, tāpēc
+// stundu izvietojums līdz nākamajam solim nemainās.
+class LessonGrid {
+
+    private final List<Lesson> lessons;
+    private final TimeSlot[][] slots; // [dayIndex][periodIndex], null, ja tāda perioda nav
+    private final List<List<Lesson>> occupying; // [ordinal] -> stundas, kas aizņem šo laiku (arī bloka turpinājums)
+    private final Map<SchoolClass, List<Lesson>> byClass = new IdentityHashMap<>();
+    private final Map<Teacher, List<Lesson>> byTeacher = new IdentityHashMap<>();
+
+    LessonGrid(TimeTable timeTable) {
+        int days = 0, periods = 0, ordinals = 0;
+        for (TimeSlot slot : timeTable.getTimeSlots()) {
+            days = Math.max(days, slot.getDayIndex() + 1);
+            periods = Math.max(periods, slot.getPeriodIndex() + 1);
+            ordinals = Math.max(ordinals, slot.getOrdinal() + 1);
+        }
+        slots = new TimeSlot[days][periods];
+        for (TimeSlot slot : timeTable.getTimeSlots()) {
+            slots[slot.getDayIndex()][slot.getPeriodIndex()] = slot;
+        }
+        occupying = new ArrayList<>(ordinals);
+        for (int i = 0; i < ordinals; i++) {
+            occupying.add(new ArrayList<>(4));
+        }
+        lessons = new ArrayList<>(timeTable.getLessons().size());
+        for (Lesson lesson : timeTable.getLessons()) {
+            if (lesson.getTimeSlot() == null) continue;
+            lessons.add(lesson);
+            for (int ordinal = lesson.getTimeSlot().getOrdinal(); ordinal < lesson.getEndOrdinal(); ordinal++) {
+                occupying.get(ordinal).add(lesson);
+            }
+            byClass.computeIfAbsent(lesson.getSchoolClass(), schoolClass -> new ArrayList<>()).add(lesson);
+            if (lesson.getTeacher() != null) {
+                byTeacher.computeIfAbsent(lesson.getTeacher(), teacher -> new ArrayList<>()).add(lesson);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return lessons.isEmpty();
+    }
+
+    int lessonCount() {
+        return lessons.size();
+    }
+
+    Lesson randomLesson(Random random) {
+        return lessons.get(random.nextInt(lessons.size()));
+    }
+
+    TimeSlot slot(int dayIndex, int periodIndex) {
+        if (dayIndex < 0 || dayIndex >= slots.length || periodIndex < 0 || periodIndex >= slots[dayIndex].length) {
+            return null;
+        }
+        return slots[dayIndex][periodIndex];
+    }
+
+    List<Lesson> occupying(TimeSlot slot) {
+        return occupying.get(slot.getOrdinal());
+    }
+
+    List<Lesson> occupying(TimeSlot slot, SchoolClass schoolClass) {
+        List<Lesson> result = new ArrayList<>(2);
+        for (Lesson lesson : occupying(slot)) {
+            if (lesson.getSchoolClass() == schoolClass) {
+                result.add(lesson);
+            }
+        }
+        return result;
+    }
+
+    // Citas stundas ar to pašu klasi vai skolotāju - tikai starp tām apmaiņa var novērst klases vai skolotāja konfliktu
+    List<Lesson> related(Lesson lesson) {
+        List<Lesson> related = new ArrayList<>(byClass.getOrDefault(lesson.getSchoolClass(), List.of()));
+        related.remove(lesson);
+        if (lesson.getTeacher() != null) {
+            for (Lesson other : byTeacher.getOrDefault(lesson.getTeacher(), List.of())) {
+                if (other.getSchoolClass() != lesson.getSchoolClass()) {
+                    related.add(other);
+                }
+            }
+        }
+        return related;
+    }
+}
@@ -0,0 +1,53 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+// Kopīgā daļa stundu laiku gājieniem: katrā solī izveido LessonGrid un bezgalīgi ģenerē nejaušus gājienus.
+// Tikai nejaušai izvēlei (lokālā meklēšana); secīga visu gājienu uzskaitīšana nav atbalstīta.
+public abstract class LessonGridMoveIteratorFactory implements MoveIteratorFactory<TimeTable, LessonTimeSlotsMove> {
+
+    @Override
+    public long getSize(ScoreDirector<TimeTable> scoreDirector) {
+        TimeTable timeTable = scoreDirector.getWorkingSolution();
+        return (long) timeTable.getLessons().size() * timeTable.getTimeSlots().size();
+    }
+
+    @Override
+    public Iterator<LessonTimeSlotsMove> createOriginalMoveIterator(ScoreDirector<TimeTable> scoreDirector) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " supports only random selection");
+    }
+
+    @Override
+    public Iterator<LessonTimeSlotsMove> createRandomMoveIterator(ScoreDirector<TimeTable> scoreDirector, Random random) {
+        LessonGrid grid = new LessonGrid(scoreDirector.getWorkingSolution());
+        if (grid.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public LessonTimeSlotsMove next() {
+                return createMove(grid, random);
+            }
+        };
+    }
+
+    protected abstract LessonTimeSlotsMove createMove(LessonGrid grid, Random random);
+
+    // Indekss pēc tuvuma sakārtotā sarakstā ar lineāru sadalījumu (kā Timefold LINEAR_DISTRIBUTION):
+    // tuvākais ir visticamākais, tālākais - vismazāk ticams
+    protected static int nearbyIndex(int size, Random random) {
+        int index = (int) (size * (1.0 - Math.sqrt(1.0 - random.nextDouble())));
+        return Math.min(index, size - 1);
+    }
+}
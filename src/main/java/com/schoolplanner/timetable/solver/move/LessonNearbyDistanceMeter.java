@@ -0,0 +1,21 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+import com.schoolplanner.timetable.domain.Lesson;
+
+// Cik tālu cita stunda ir no izcelsmes stundas: vispirms kopīga klase, tad kopīgs skolotājs, tad laika attālums
+// (TimeSlotNearbyDistanceMeter). Rezultāts [0, 3) klasei un skolotājam, [3, 4) stundām bez kopīgiem resursiem.
+public class LessonNearbyDistanceMeter implements NearbyDistanceMeter<Lesson, Lesson> {
+
+    @Override
+    public double getNearbyDistance(Lesson origin, Lesson destination) {
+        double distance = TimeSlotNearbyDistanceMeter.timeDistance(origin.getTimeSlot(), destination.getTimeSlot());
+        if (origin.getSchoolClass() != destination.getSchoolClass()) {
+            distance += 2.0;
+        }
+        if (origin.getTeacher() == null || origin.getTeacher() != destination.getTeacher()) {
+            distance += 1.0;
+        }
+        return distance;
+    }
+}
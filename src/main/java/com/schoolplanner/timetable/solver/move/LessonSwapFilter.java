@@ -0,0 +1,25 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.SwapMove;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+import java.util.List;
+
+// Visi Lesson swap filtri vienā (selektoram var norādīt tikai vienu filterClass); katrs skaita savus izmestos gājienus
+public class LessonSwapFilter implements SelectionFilter<TimeTable, SwapMove<TimeTable>> {
+
+    private final List<CountingMoveFilter<SwapMove<TimeTable>>> filters =
+            List.of(new SameAssignmentSwapFilter(), new RoomTypeSwapFilter(), new LunchSwapFilter());
+
+    @Override
+    public boolean accept(ScoreDirector<TimeTable> scoreDirector, SwapMove<TimeTable> move) {
+        for (CountingMoveFilter<SwapMove<TimeTable>> filter : filters) {
+            if (!filter.accept(scoreDirector, move)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
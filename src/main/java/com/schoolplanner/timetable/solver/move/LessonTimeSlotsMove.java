@@ -0,0 +1,128 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.AbstractSimplifiedMove;
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.TimeSlot;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+// Vairākām stundām vienlaikus uzstāda jaunu timeSlot (telpa un skolotājs nemainās). Šo gājienu veido
+// ClassTimeSlotSwapMoveIteratorFactory, KempeChainMoveIteratorFactory un BlockShiftMoveIteratorFactory;
+// atsaukšanu AbstractSimplifiedMove izveido no reģistrētajām mainīgo izmaiņām.
+public class LessonTimeSlotsMove extends AbstractSimplifiedMove<TimeTable> {
+
+    private final String moveType;
+    private final List<Lesson> lessons;
+    private final List<TimeSlot> toTimeSlots;
+
+    public LessonTimeSlotsMove(String moveType, List<Lesson> lessons, List<TimeSlot> toTimeSlots) {
+        this.moveType = moveType;
+        this.lessons = lessons;
+        this.toTimeSlots = toTimeSlots;
+    }
+
+    // Gājiens, ko iteratora fabrika atgriež, ja izvēlētās stundas nevar pārvietot (piemēram, laiks ārpus vērtību apgabala)
+    public static LessonTimeSlotsMove notDoable(String moveType) {
+        return new LessonTimeSlotsMove(moveType, List.of(), List.of());
+    }
+
+    // Neizpildāms, ja neviena stunda nemaina laiku vai ja gājiens tikai samaina laikus aizvietojamām stundām ar to pašu
+    // telpu (piemēram, divām vienas klases matemātikas stundām) - tāds saraksts jau ir
+    @Override
+    public boolean isMoveDoable(ScoreDirector<TimeTable> scoreDirector) {
+        for (int i = 0; i < lessons.size(); i++) {
+            if (lessons.get(i).getTimeSlot() != toTimeSlots.get(i)) {
+                return !isInterchangeablePermutation();
+            }
+        }
+        return false;
+    }
+
+    // Katram jaunajam laikam atrod citu (vēl neizmantotu) gājiena stundu, kas šobrīd ir tajā laikā un ir aizvietojama
+    // ar stundu, kas uz to pārceļas (vai ir tā pati stunda)
+    private boolean isInterchangeablePermutation() {
+        boolean[] matched = new boolean[lessons.size()];
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            int match = -1;
+            for (int j = 0; j < lessons.size() && match < 0; j++) {
+                Lesson other = lessons.get(j);
+                if (!matched[j] && other.getTimeSlot() == toTimeSlots.get(i)
+                        && (other == lesson || (lesson.isInterchangeableWith(other) && lesson.getRoom() == other.getRoom()))) {
+                    match = j;
+                }
+            }
+            if (match < 0) {
+                return false;
+            }
+            matched[match] = true;
+        }
+        return true;
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<TimeTable> scoreDirector) {
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            scoreDirector.beforeVariableChanged(lesson, "timeSlot");
+            lesson.setTimeSlot(toTimeSlots.get(i));
+            scoreDirector.afterVariableChanged(lesson, "timeSlot");
+        }
+    }
+
+    @Override
+    public LessonTimeSlotsMove rebase(ScoreDirector<TimeTable> destinationScoreDirector) {
+        List<Lesson> rebasedLessons = new ArrayList<>(lessons.size());
+        List<TimeSlot> rebasedTimeSlots = new ArrayList<>(toTimeSlots.size());
+        for (int i = 0; i < lessons.size(); i++) {
+            rebasedLessons.add(destinationScoreDirector.lookUpWorkingObject(lessons.get(i)));
+            rebasedTimeSlots.add(destinationScoreDirector.lookUpWorkingObject(toTimeSlots.get(i)));
+        }
+        return new LessonTimeSlotsMove(moveType, rebasedLessons, rebasedTimeSlots);
+    }
+
+    @Override
+    public String getSimpleMoveTypeDescription() {
+        return moveType;
+    }
+
+    @Override
+    public List<Lesson> getPlanningEntities() {
+        return lessons;
+    }
+
+    @Override
+    public LinkedHashSet<TimeSlot> getPlanningValues() {
+        return new LinkedHashSet<>(toTimeSlots);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LessonTimeSlotsMove other)) return false;
+        return moveType.equals(other.moveType) && lessons.equals(other.lessons) && toTimeSlots.equals(other.toTimeSlots);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(moveType, lessons, toTimeSlots);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(moveType).append('{');
+        for (int i = 0; i < lessons.size(); i++) {
+            if (i > 0) builder.append(", ");
+            Lesson lesson = lessons.get(i);
+            builder.append(lesson.getId()).append(": ")
+                    .append(lesson.getTimeSlot() == null ? null : lesson.getTimeSlot().getId())
+                    .append(" -> ").append(toTimeSlots.get(i).getId());
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.SwapMove;
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.LunchGroup;
+import com.schoolplanner.timetable.domain.TimeSlot;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+// Apmaiņa, pēc kuras kāda stunda (vai bloka periods) būtu klases pusdienu laikā. Laiku vērtību apgabals to tāpat
+// neatļautu; šeit to pārbauda ar pusdienu bitmasku, nepārlasot apgabalu.
+public class LunchSwapFilter extends CountingMoveFilter<SwapMove<TimeTable>> {
+
+    @Override
+    protected boolean isUseless(SwapMove<TimeTable> move) {
+        Lesson left = (Lesson) move.getLeftEntity();
+        Lesson right = (Lesson) move.getRightEntity();
+        return inLunch(left, right.getTimeSlot()) || inLunch(right, left.getTimeSlot());
+    }
+
+    private static boolean inLunch(Lesson lesson, TimeSlot timeSlot) {
+        LunchGroup lunchGroup = lesson.getSchoolClass().getLunchGroup();
+        if (lunchGroup == null || timeSlot == null) return false;
+        long periodMask = ((1L << lesson.getPeriods()) - 1) << timeSlot.getPeriodIndex();
+        return (lunchGroup.lunchMask(timeSlot.getDayIndex()) & periodMask) != 0L;
+    }
+}
@@ -0,0 +1,32 @@
+package com.schoolplanner.timetable.solver.move;
+
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.TimeSlot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+// Pārceļ stundu uz laiku no tās vērtību apgabala, dodot priekšroku laikiem tuvu pašreizējam
+// (TimeSlotNearbyDistanceMeter: tā pati diena, blakus periodi).
+public class NearbyLessonChangeMoveIteratorFactory extends LessonGridMoveIteratorFactory {
+
+    static final String MOVE_TYPE = "NearbyChangeMove";
+
+    private final TimeSlotNearbyDistanceMeter distanceMeter = new TimeSlotNearbyDistanceMeter();
+
+    @Override
+    protected LessonTimeSlotsMove createMove(LessonGrid grid, Random random) {
+        Lesson lesson = grid.randomLesson(random);
+        List<TimeSlot> range = lesson.getTimeSlotRange();
+        if (range == null || range.size() < 2) {
+            return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+        }
+        List<TimeSlot> timeSlots = new ArrayList<>(range);
+        timeSlots.remove(lesson.getTimeSlot());
+        timeSlots.sort(Comparator.comparingDouble(timeSlot -> distanceMeter.getNearbyDistance(lesson, timeSlot)));
+        TimeSlot timeSlot = timeSlots.get(nearbyIndex(timeSlots.size(), random));
+        return new LessonTimeSlotsMove(MOVE_TYPE, List.of(lesson), List.of(timeSlot));
+    }
+}
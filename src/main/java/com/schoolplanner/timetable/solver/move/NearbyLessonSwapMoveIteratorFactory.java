@@ -0,0 +1,36 @@
+package com.schoolplanner.timetable.solver.move;
+
+import com.schoolplanner.timetable.domain.Lesson;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+// Apmaina laikus divām stundām, otro izvēloties tuvu pirmajai (LessonNearbyDistanceMeter). Izvēlas tikai starp
+// stundām ar kopīgu klasi vai skolotāju; stundas bez kopīgiem resursiem konfliktu ar apmaiņu nenovērš.
+// Timefold nearbySelection prasa Enterprise versiju, tāpēc tuvuma izvēle ir šeit.
+public class NearbyLessonSwapMoveIteratorFactory extends LessonGridMoveIteratorFactory {
+
+    static final String MOVE_TYPE = "NearbySwapMove";
+
+    private final LessonNearbyDistanceMeter distanceMeter = new LessonNearbyDistanceMeter();
+
+    @Override
+    protected LessonTimeSlotsMove createMove(LessonGrid grid, Random random) {
+        Lesson lesson = grid.randomLesson(random);
+        List<Lesson> related = grid.related(lesson);
+        // Aizvietojamas stundas ar to pašu telpu ir tuvākās, bet to laiku apmaiņa sarakstu nemaina
+        related.removeIf(other -> lesson.isInterchangeableWith(other) && lesson.getRoom() == other.getRoom());
+        if (related.isEmpty()) {
+            return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+        }
+        related.sort(Comparator.comparingDouble(other -> distanceMeter.getNearbyDistance(lesson, other)));
+        Lesson other = related.get(nearbyIndex(related.size(), random));
+        if (other.getTimeSlot() == lesson.getTimeSlot()
+                || !lesson.getTimeSlotRange().contains(other.getTimeSlot())
+                || !other.getTimeSlotRange().contains(lesson.getTimeSlot())) {
+            return LessonTimeSlotsMove.notDoable(MOVE_TYPE);
+        }
+        return new LessonTimeSlotsMove(MOVE_TYPE, List.of(lesson, other), List.of(other.getTimeSlot(), lesson.getTimeSlot()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.SwapMove;
+import com.schoolplanner.timetable.domain.ClassUnitAssignment;
+import com.schoolplanner.timetable.domain.Teacher;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+// Skolotāju apmaiņa starp (klase, mācību vienība) pāriem, pēc kuras kāds skolotājs nav kvalificēts savai mācību
+// vienībai. Skolotāju vērtību apgabals to tāpat neatļautu; šeit to pārbauda ar kvalifikāciju bitkopu.
+public class QualificationSwapFilter extends CountingMoveFilter<SwapMove<TimeTable>> {
+
+    @Override
+    protected boolean isUseless(SwapMove<TimeTable> move) {
+        ClassUnitAssignment left = (ClassUnitAssignment) move.getLeftEntity();
+        ClassUnitAssignment right = (ClassUnitAssignment) move.getRightEntity();
+        return !qualified(left, right.getTeacher()) || !qualified(right, left.getTeacher());
+    }
+
+    private static boolean qualified(ClassUnitAssignment assignment, Teacher teacher) {
+        return teacher == null || assignment.getTeachingUnit() == null || teacher.isQualifiedFor(assignment.getTeachingUnit());
+    }
+}
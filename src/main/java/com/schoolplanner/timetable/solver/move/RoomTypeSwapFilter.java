@@ -0,0 +1,22 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.SwapMove;
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.Room;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+// Apmaiņa, pēc kuras kādai stundai būtu cita tipa telpa, nekā vajag tās mācību vienībai. Telpu vērtību apgabals
+// (Lesson.roomRange) to tāpat neatļautu, bet SwapMove.isMoveDoable to noskaidro, pārlasot visu apgabalu.
+public class RoomTypeSwapFilter extends CountingMoveFilter<SwapMove<TimeTable>> {
+
+    @Override
+    protected boolean isUseless(SwapMove<TimeTable> move) {
+        Lesson left = (Lesson) move.getLeftEntity();
+        Lesson right = (Lesson) move.getRightEntity();
+        return !fits(left, right.getRoom()) || !fits(right, left.getRoom());
+    }
+
+    private static boolean fits(Lesson lesson, Room room) {
+        return room == null || lesson.getTeachingUnit() == null || room.getRoomType() == lesson.getTeachingUnit().getRoomType();
+    }
+}
@@ -0,0 +1,17 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.SwapMove;
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.TimeTable;
+
+// Divas tās pašas klases un mācību vienības stundas (Lesson.isInterchangeableWith) ir savstarpēji aizvietojamas:
+// apmainot laiku un telpu, saraksts un rezultāts nemainās.
+public class SameAssignmentSwapFilter extends CountingMoveFilter<SwapMove<TimeTable>> {
+
+    @Override
+    protected boolean isUseless(SwapMove<TimeTable> move) {
+        Lesson left = (Lesson) move.getLeftEntity();
+        Lesson right = (Lesson) move.getRightEntity();
+        return left.isInterchangeableWith(right);
+    }
+}
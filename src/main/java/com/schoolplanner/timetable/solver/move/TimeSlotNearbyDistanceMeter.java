@@ -0,0 +1,27 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.TimeSlot;
+
+// Laika attālums no stundas pašreizējā laika: tā pati diena ir tuvāk par jebkuru citu dienu, dienas ietvaros -
+// periodu starpība. Rezultāts [0, 1); laiks, ja stundai tā vēl nav, ir vistālākais.
+public class TimeSlotNearbyDistanceMeter implements NearbyDistanceMeter<Lesson, TimeSlot> {
+
+    private static final int MAX_PERIODS = 32;
+    private static final int MAX_DAYS = 8;
+
+    @Override
+    public double getNearbyDistance(Lesson origin, TimeSlot destination) {
+        return timeDistance(origin.getTimeSlot(), destination);
+    }
+
+    static double timeDistance(TimeSlot origin, TimeSlot destination) {
+        if (origin == null || destination == null) {
+            return 1.0 - 1.0 / (MAX_DAYS * MAX_PERIODS);
+        }
+        int days = Math.min(Math.abs(origin.getDayIndex() - destination.getDayIndex()), MAX_DAYS - 1);
+        int periods = Math.min(Math.abs(origin.getPeriodIndex() - destination.getPeriodIndex()), MAX_PERIODS - 1);
+        return (days * MAX_PERIODS + periods) / (double) (MAX_DAYS * MAX_PERIODS);
+    }
+}
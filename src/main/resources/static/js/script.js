@@ -7,7 +7,7 @@ let lessonsByClass = {};
 let sortedTimeSlots = [];
 let classInfoMap = new Map(); // className -> { name, grade }
 let lunchGroups = []; // Store lunch groups from the solution
-let autoRetryTimeout = null; // Track auto-retry timeout to cancel if needed
+let eventSource = null; // Live progress stream of the job being watched
 
 function showStatus(message, type) {
     const el = document.getElementById('status');
@@ -56,10 +56,8 @@ async function submitEndpoint() {
         document.getElementById('jobIdInput').value = jobId;
         document.getElementById('endpointSelect').value = '';
         
-        // Optional: auto-fetch the solution after a short delay
-        setTimeout(() => {
-            fetchSolution();
-        }, 1500);
+        // Show the best solution live while the job is solving
+        watchJob(jobId);
         
     } catch (error) {
         showEndpointStatus(`Error: ${error.message}`, 'error');
@@ -122,10 +120,8 @@ async function submitUploadedFiles() {
         document.getElementById('lunchGroupsCsvFile').value = '';
         document.getElementById('lessonsCsvFile').value = '';
 
-        // Optional: auto-fetch the solution after a short delay
-        setTimeout(() => {
-            fetchSolution();
-        }, 1500);
+        // Show the best solution live while the job is solving
+        watchJob(jobId);
 
     } catch (error) {
         showUploadStatus(`Error: ${error.message}`, 'error');
@@ -316,11 +312,12 @@ function compareTimeSlots(a, b) {
     return a.startTime.localeCompare(b.startTime);
 }
 
-async function fetchSolution(isRetry = false) {
+async function fetchSolution(keepView = false) {
     const jobId = document.getElementById('jobIdInput').value.trim();
     if (!jobId) { showStatus('Please enter a Job ID', 'error'); return; }
 
-    if (!isRetry) {
+    if (!keepView) {
+        stopWatching();
         hideStatus();
         toggleLoading(true);
         resetView();
@@ -334,11 +331,8 @@ async function fetchSolution(isRetry = false) {
             return; 
         }
         if (res.status === 409) { 
-            // Auto-retry after 500ms, keep spinner visible and status hidden
-            if (autoRetryTimeout) clearTimeout(autoRetryTimeout);
-            autoRetryTimeout = setTimeout(() => {
-                fetchSolution(true);
-            }, 500);
+            // Not finished yet: follow the job's progress instead
+            watchJob(jobId);
             return; 
         }
         if (!res.ok) throw new Error(`HTTP error ${res.status}`);
@@ -347,15 +341,112 @@ async function fetchSolution(isRetry = false) {
         handleSolution(data);
         showStatus('Solution loaded. Select a class to view.', 'success');
         toggleLoading(false);
-        if (autoRetryTimeout) clearTimeout(autoRetryTimeout);
     } catch (err) {
         console.error(err);
         showStatus(`Error: ${err.message}`, 'error');
         toggleLoading(false);
-        if (autoRetryTimeout) clearTimeout(autoRetryTimeout);
     }
 }
 
+// Follows a job over Server-Sent Events: every new best score is shown at once and the timetable is redrawn from
+// each solution snapshot; once the job completes, the full solution with constraint matches is loaded
+function watchJob(jobId) {
+    stopWatching();
+    const source = new EventSource(`${API_BASE}/jobs/${jobId}/events`);
+    eventSource = source;
+    document.getElementById('stopBtn').disabled = false;
+
+    source.addEventListener('status', e => {
+        const data = JSON.parse(e.data);
+        if (data.status === 'COMPLETED') {
+            stopWatching();
+            fetchSolution(true);
+        } else if (data.status === 'FAILED') {
+            stopWatching();
+            toggleLoading(false);
+            showStatus(`Solving failed: ${data.error || 'unknown error'}`, 'error');
+        } else if (data.status === 'CANCELLED') {
+            stopWatching();
+            toggleLoading(false);
+            showStatus('The job was stopped before it started solving.', 'info');
+        } else if (data.status === 'PENDING') {
+            showStatus('Waiting for a free solver...', 'info');
+        } else {
+            showStatus('Solving...', 'info');
+        }
+    });
+    source.addEventListener('score', e => {
+        const data = JSON.parse(e.data);
+        showScore(data.score);
+        showStatus(`Solving... best score ${data.score}`, 'info');
+    });
+    source.addEventListener('solution', e => {
+        handleSolution(snapshotToSolution(JSON.parse(e.data)));
+        toggleLoading(false);
+    });
+    source.onerror = () => {
+        // The browser reconnects by itself unless the server refused the stream (e.g. unknown job)
+        if (source.readyState === EventSource.CLOSED && eventSource === source) {
+            stopWatching();
+            toggleLoading(false);
+            showStatus('Lost the connection to the job. Please check the Job ID.', 'error');
+        }
+    };
+}
+
+function stopWatching() {
+    if (eventSource) {
+        eventSource.close();
+        eventSource = null;
+    }
+    document.getElementById('stopBtn').disabled = true;
+}
+
+// Ends solving early; the job completes with its best solution so far, which the event stream then delivers
+async function stopJob() {
+    const jobId = document.getElementById('jobIdInput').value.trim();
+    if (!jobId) return;
+    document.getElementById('stopBtn').disabled = true;
+    try {
+        const res = await fetch(`${API_BASE}/jobs/${jobId}/stop`, { method: 'POST' });
+        if (res.status === 404) { showStatus('Job not found. Please check the Job ID.', 'error'); return; }
+        if (res.status === 409) { showStatus('The job has already finished.', 'info'); return; }
+        if (!res.ok) throw new Error(`HTTP error ${res.status}`);
+        showStatus('Stopping... keeping the best solution found so far.', 'info');
+    } catch (err) {
+        console.error(err);
+        showStatus(`Error: ${err.message}`, 'error');
+    }
+}
+
+// Expands a compact solution snapshot into the lesson shape of the solution endpoint
+function snapshotToSolution(snapshot) {
+    const slotById = new Map((snapshot.timeSlots || []).map(ts => [ts.id, ts]));
+    const lessons = (snapshot.lessons || []).map(l => {
+        const timeSlots = (l.timeSlotIds || []).map(id => slotById.get(id)).filter(Boolean);
+        return {
+            id: l.id,
+            schoolClass: { name: l.schoolClass, grade: l.grade },
+            teachingUnit: { subject: l.subject, roomType: l.roomType },
+            teacher: l.teacherId ? { id: l.teacherId, firstName: l.teacherName || '', lastName: '' } : null,
+            room: l.room ? { id: l.room } : null,
+            timeSlot: timeSlots[0] || null,
+            timeSlots
+        };
+    });
+    return { score: snapshot.score, lessons, lunchGroups: snapshot.lunchGroups || [] };
+}
+
+function showScore(scoreStr) {
+    // Scores of not yet fully initialized solutions start with e.g. "-12init/"
+    const score = formatScore((scoreStr || '0hard/0soft').replace(/^-?\d+init\//, ''));
+    const hardEl = document.getElementById('hardScore');
+    hardEl.textContent = score.hard;
+    hardEl.className = `score-value ${parseInt(score.hard) === 0 ? 'hard-positive' : 'hard-negative'}`;
+    document.getElementById('softScore').textContent = score.soft;
+    document.getElementById('scoreSection').style.display = 'block';
+}
+
 function handleSolution(data) {
     solutionLessons = data.lessons || [];
     lunchGroups = data.lunchGroups || [];
@@ -364,15 +455,12 @@ function handleSolution(data) {
         return;
     }
 
-    const score = formatScore(data.score || '0hard/0soft');
-    const hardEl = document.getElementById('hardScore');
-    hardEl.textContent = score.hard;
-    hardEl.className = `score-value ${parseInt(score.hard) === 0 ? 'hard-positive' : 'hard-negative'}`;
-    document.getElementById('softScore').textContent = score.soft;
-    document.getElementById('scoreSection').style.display = 'block';
+    showScore(data.score);
     
-    // Display constraint matches
-    displayConstraintMatches(data.constraintMatches || {});
+    // Display constraint matches (live snapshots come without them)
+    if (data.constraintMatches) {
+        displayConstraintMatches(data.constraintMatches);
+    }
 
     lessonsByClass = {};
     classInfoMap = new Map();
@@ -385,12 +473,14 @@ function handleSolution(data) {
         if (!lessonsByClass[className]) lessonsByClass[className] = [];
         lessonsByClass[className].push(lesson);
 
-        if (lesson.timeSlot) {
-            const key = getTimeSlotKey(lesson.timeSlot);
+        // Multi-period blocks list every slot they occupy in timeSlots
+        const lessonSlots = lesson.timeSlots || (lesson.timeSlot ? [lesson.timeSlot] : []);
+        lessonSlots.forEach(ts => {
+            const key = getTimeSlotKey(ts);
             if (key && !timeSlotMap.has(key)) {
-                timeSlotMap.set(key, lesson.timeSlot);
+                timeSlotMap.set(key, ts);
             }
-        }
+        });
     });
 
     // Also include lunch time slots so they appear in the timetable even if no lesson is scheduled
@@ -414,7 +504,13 @@ function handleSolution(data) {
         return (a.name || '').localeCompare(b.name || '');
     });
 
+    // Keep the selected class when a newer solution arrives
+    const selectedClass = document.getElementById('classSelect').value;
     populateClassSelect(classList);
+    if (selectedClass && classInfoMap.has(selectedClass)) {
+        document.getElementById('classSelect').value = selectedClass;
+        renderTableForClass(selectedClass);
+    }
 }
 
 function populateClassSelect(classList) {
@@ -466,10 +562,11 @@ function renderTableForClass(className) {
     // map lessons by day/time for quick lookup
     const lessonMap = new Map();
     lessons.forEach(l => {
-        if (l.timeSlot) {
-            const key = `${l.timeSlot.schoolDay}_${l.timeSlot.startTime}_${l.timeSlot.endTime}`;
+        const lessonSlots = l.timeSlots || (l.timeSlot ? [l.timeSlot] : []);
+        lessonSlots.forEach(ts => {
+            const key = `${ts.schoolDay}_${ts.startTime}_${ts.endTime}`;
             lessonMap.set(key, l);
-        }
+        });
     });
 
     // group time slots by start/end regardless of day to build rows
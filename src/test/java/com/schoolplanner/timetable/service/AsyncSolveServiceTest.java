@@ -0,0 +1,203 @@
+package com.schoolplanner.timetable.service;
+
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.schoolplanner.timetable.controller.dto.SolveJob;
+import com.schoolplanner.timetable.controller.dto.SolveOptions;
+import com.schoolplanner.timetable.controller.dto.SolveStatus;
+import com.schoolplanner.timetable.domain.TimeTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Darbu rinda, apturēšana, sākuma laika novērtējums un pabeigto darbu glabāšana ar TimeTableService aizstājēju,
+// kas nerisina, bet gaida, kamēr tests to atlaiž, un atgriež pašu problēmu
+class AsyncSolveServiceTest {
+
+    private final StubTimeTableService timeTableService = new StubTimeTableService();
+    private AsyncSolveService service;
+
+    @AfterEach
+    void shutdown() {
+        timeTableService.release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void pendingJobsStartByPriorityThenSubmissionOrder() {
+        service = service(new SolutionStore(null, false, ""), 10, Duration.ZERO, 0);
+        SolveJob running = solving(service.submit(SampleData.smallDemo()));
+        SolveJob first = submit(0);
+        SolveJob lowest = submit(Integer.MIN_VALUE);
+        SolveJob highest = submit(Integer.MAX_VALUE);
+        SolveJob high = submit(5);
+        SolveJob second = submit(0);
+        SolveJob secondHighest = submit(Integer.MAX_VALUE);
+
+        List<SolveJob> expectedOrder = List.of(highest, secondHighest, high, first, second, lowest);
+        for (int i = 0; i < expectedOrder.size(); i++) {
+            assertEquals(i, service.queuePosition(expectedOrder.get(i)));
+        }
+        assertEquals(-1, service.queuePosition(running));
+
+        timeTableService.release.countDown();
+        expectedOrder.forEach(this::finished);
+        assertEquals(List.of(running.getJobId(), highest.getJobId(), secondHighest.getJobId(), high.getJobId(),
+                first.getJobId(), second.getJobId(), lowest.getJobId()), timeTableService.startedJobIds);
+    }
+
+    @Test
+    void submitIsRejectedWhenQueueIsFull() {
+        service = service(new SolutionStore(null, false, ""), 2, Duration.ZERO, 0);
+        solving(service.submit(SampleData.smallDemo()));
+        submit(0);
+        submit(0);
+
+        assertThrows(RejectedExecutionException.class, () -> service.submit(SampleData.smallDemo()));
+        assertEquals(3, service.getJobs().size());
+    }
+
+    @Test
+    void stoppingPendingJobCancelsIt() {
+        service = service(new SolutionStore(null, false, ""), 10, Duration.ZERO, 0);
+        SolveJob running = solving(service.submit(SampleData.smallDemo()));
+        SolveJob pending = submit(0);
+
+        assertTrue(service.stop(pending));
+        assertEquals(SolveStatus.CANCELLED, pending.getStatus());
+        assertNotNull(pending.getFinishedAt());
+        assertEquals(-1, service.queuePosition(pending));
+        assertFalse(service.stop(pending));
+
+        // Risināms darbs beidzas ar līdz šim labāko risinājumu
+        assertTrue(service.stop(running));
+        finished(running);
+        assertEquals(SolveStatus.COMPLETED, running.getStatus());
+        assertEquals(List.of(running.getJobId()), timeTableService.startedJobIds);
+    }
+
+    @Test
+    void estimatedStartTimePlacesPendingJobsOnFreeSlots() {
+        service = service(new SolutionStore(null, false, ""), 10, Duration.ZERO, 0);
+        SolveJob running = solving(service.submit(SampleData.smallDemo()));
+        SolveJob next = submit(0);
+        SolveJob afterNext = submit(0);
+
+        // Viens slots, noklusējuma ilgums 60 s: nākamais sāk, kad beidzas risināmais, pēc tam vēl 60 s
+        assertEquals(running.getStartedAt(), service.estimatedStartTime(running));
+        assertEquals(running.getStartedAt().plusSeconds(60), service.estimatedStartTime(next));
+        assertEquals(running.getStartedAt().plusSeconds(120), service.estimatedStartTime(afterNext));
+    }
+
+    @Test
+    void completedSolutionIsSpilledAndEvictedBeyondMaxFinished(@TempDir Path directory) {
+        SolutionStore solutionStore = new SolutionStore(Jackson2ObjectMapperBuilder.json().build(), true, directory.toString());
+        service = service(solutionStore, 10, Duration.ZERO, 1);
+        timeTableService.release.countDown();
+        SolveJob oldest = finished(service.getJob(service.submit(SampleData.smallDemo())));
+
+        // Risinājumu izliek diskā pēc tam, kad darbs ir pabeigts
+        await(() -> oldest.getSolutionFile() != null);
+        Path solutionFile = oldest.getSolutionFile();
+        assertTrue(Files.exists(solutionFile));
+        assertNull(oldest.getSolution());
+        TimeTable loaded = service.solution(oldest);
+        assertEquals(SampleData.smallDemo().getLessons().size(), loaded.getLessons().size());
+
+        SolveJob newest = finished(service.getJob(service.submit(SampleData.smallDemo())));
+        await(() -> service.getJob(oldest.getJobId()) == null);
+        assertTrue(oldest.isEvicted());
+        assertFalse(Files.exists(solutionFile));
+        assertNull(service.solution(oldest));
+        assertSame(newest, service.getJob(newest.getJobId()));
+    }
+
+    @Test
+    void finishedJobIsEvictedAfterTtl() {
+        service = service(new SolutionStore(null, false, ""), 10, Duration.ofMillis(100), 0);
+        timeTableService.release.countDown();
+        SolveJob job = finished(service.getJob(service.submit(SampleData.smallDemo())));
+
+        await(() -> service.getJob(job.getJobId()) == null);
+        assertTrue(job.isEvicted());
+        assertNull(service.latestSolution(job));
+    }
+
+    private AsyncSolveService service(SolutionStore solutionStore, int queueCapacity, Duration retentionTtl, int maxFinished) {
+        return new AsyncSolveService(timeTableService, new ConstraintProfileService(new SimpleMeterRegistry(), 10),
+                solutionStore, new SolveEventService(Duration.ofSeconds(5)), 1, queueCapacity, 60,
+                retentionTtl, maxFinished, Duration.ofMillis(50));
+    }
+
+    private SolveJob submit(int priority) {
+        SolveOptions options = new SolveOptions();
+        options.setPriority(priority);
+        return service.getJob(service.submit(SampleData.smallDemo(), options));
+    }
+
+    private SolveJob solving(String jobId) {
+        SolveJob job = service.getJob(jobId);
+        await(() -> job.getStatus() == SolveStatus.SOLVING);
+        return job;
+    }
+
+    private SolveJob finished(SolveJob job) {
+        await(() -> job.getFinishedAt() != null);
+        return job;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10 seconds");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private static class StubTimeTableService extends TimeTableService {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<String> startedJobIds = new CopyOnWriteArrayList<>();
+
+        private StubTimeTableService() {
+            super(null, SolverConfig.createFromXmlResource("solverConfig.xml"), null, false, 10);
+        }
+
+        @Override
+        public TimeTable solve(UUID problemId, TimeTable problem, SolveOptions options, Consumer<TimeTable> bestSolutionConsumer,
+                               BooleanSupplier stopRequested) throws ExecutionException, InterruptedException {
+            startedJobIds.add(problemId.toString());
+            while (!release.await(10, TimeUnit.MILLISECONDS) && !stopRequested.getAsBoolean()) {
+                // gaida, kamēr tests atlaiž vai aptur darbu
+            }
+            return problem;
+        }
+
+        @Override
+        public void terminateEarly(UUID problemId) {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.schoolplanner.timetable.service;
+
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationCompositionStyle;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import com.schoolplanner.timetable.controller.dto.SolveOptions;
+import com.schoolplanner.timetable.domain.TimeTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Darba beigšanas nosacījums no pieprasījuma parametriem un divu posmu risināšanas kopīgais laika limits
+class TimeTableServiceTest {
+
+    // solverConfig.xml: 400 s OR (0hard AND 8 s bez uzlabojuma)
+    private final SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+
+    @Test
+    void noTerminationOptionsKeepSolverConfig() {
+        assertNull(service(solverConfig).terminationConfig(new SolveOptions()));
+    }
+
+    @Test
+    void secondsSpentLimitOverwritesSpentLimit() {
+        SolveOptions options = new SolveOptions();
+        options.setSecondsSpentLimit(30L);
+
+        TerminationConfig termination = service(solverConfig).terminationConfig(options);
+        assertEquals(30_000L, termination.calculateTimeMillisSpentLimit());
+        assertEquals(8_000L, nested(termination).calculateUnimprovedTimeMillisSpentLimit());
+        // solverConfig.xml paliek nemainīts
+        assertEquals(400_000L, solverConfig.getTerminationConfig().calculateTimeMillisSpentLimit());
+    }
+
+    @Test
+    void unimprovedSecondsSpentLimitOverwritesNestedLimit() {
+        SolveOptions options = new SolveOptions();
+        options.setUnimprovedSecondsSpentLimit(3L);
+
+        TerminationConfig termination = service(solverConfig).terminationConfig(options);
+        assertEquals(400_000L, termination.calculateTimeMillisSpentLimit());
+        assertEquals(1, termination.getTerminationConfigList().size());
+        assertEquals(3_000L, nested(termination).calculateUnimprovedTimeMillisSpentLimit());
+        assertEquals(8_000L, nested(solverConfig.getTerminationConfig()).calculateUnimprovedTimeMillisSpentLimit());
+    }
+
+    @Test
+    void unimprovedSecondsSpentLimitIsAddedWhenNoneConfigured() {
+        SolverConfig spentLimitOnly = new SolverConfig(solverConfig)
+                .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(10L));
+        SolveOptions options = new SolveOptions();
+        options.setUnimprovedSecondsSpentLimit(5L);
+
+        TerminationConfig termination = service(spentLimitOnly).terminationConfig(options);
+        assertEquals(TerminationCompositionStyle.OR, termination.getTerminationCompositionStyle());
+        List<TerminationConfig> terminations = termination.getTerminationConfigList();
+        assertEquals(10_000L, terminations.get(0).calculateTimeMillisSpentLimit());
+        assertEquals(5_000L, terminations.get(1).calculateUnimprovedTimeMillisSpentLimit());
+    }
+
+    @Test
+    void bestScoreLimitIsAddedWithOr() {
+        SolveOptions options = new SolveOptions();
+        options.setBestScoreLimit(" 0hard/-20soft ");
+
+        TerminationConfig termination = service(solverConfig).terminationConfig(options);
+        assertEquals(TerminationCompositionStyle.OR, termination.getTerminationCompositionStyle());
+        List<TerminationConfig> terminations = termination.getTerminationConfigList();
+        assertEquals(400_000L, terminations.get(0).calculateTimeMillisSpentLimit());
+        assertEquals("0hard/-20soft", terminations.get(1).getBestScoreLimit());
+
+        // Bez solverConfig.xml beigšanas nosacījuma paliek tikai bestScoreLimit
+        SolverConfig noTermination = new SolverConfig(solverConfig).withTerminationConfig(null);
+        options.setBestScoreLimit("0hard/*soft");
+        assertEquals("0hard/*soft", service(noTermination).terminationConfig(options).getBestScoreLimit());
+    }
+
+    @Test
+    void invalidTerminationOptionsAreRejected() {
+        TimeTableService service = service(solverConfig);
+        SolveOptions spent = new SolveOptions();
+        spent.setSecondsSpentLimit(0L);
+        assertThrows(IllegalArgumentException.class, () -> service.terminationConfig(spent));
+
+        SolveOptions unimproved = new SolveOptions();
+        unimproved.setUnimprovedSecondsSpentLimit(-1L);
+        assertThrows(IllegalArgumentException.class, () -> service.terminationConfig(unimproved));
+
+        SolveOptions bestScore = new SolveOptions();
+        bestScore.setBestScoreLimit("abc");
+        assertThrows(IllegalArgumentException.class, () -> service.terminationConfig(bestScore));
+    }
+
+    // Pirmais posms nesasniedz 0hard 2 sekundēs, tāpēc otrajam laika neatliek; bez kopīga limita otrais posms
+    // risinātu vēl 2 sekundes
+    @Test
+    void hardFirstPhasesShareSpentLimit() throws Exception {
+        SolverFactory<TimeTable> solverFactory = SolverFactory.create(solverConfig);
+        try (SolverManager<TimeTable, UUID> solverManager = SolverManager.create(solverFactory)) {
+            TimeTableService service = new TimeTableService(solverManager, solverConfig, SolutionManager.create(solverFactory), true, 240);
+            SolveOptions options = new SolveOptions();
+            options.setSecondsSpentLimit(2L);
+            TimeTable problem = CsvDataLoader.generateFromAllCsvFiles("data/rooms.csv", "data/teachers_limited.csv",
+                    "data/lunch_groups.csv", "data/lesson_list_678.csv", 1);
+
+            long start = System.currentTimeMillis();
+            TimeTable solution = service.solve(problem, options, bestSolution -> {});
+            long elapsedMillis = System.currentTimeMillis() - start;
+
+            assertTrue(elapsedMillis < 3_500, "Both phases took " + elapsedMillis + " ms with a 2 s limit");
+            assertNotNull(solution.getScore());
+        }
+    }
+
+    private static TimeTableService service(SolverConfig solverConfig) {
+        return new TimeTableService(null, solverConfig, null, false, 240);
+    }
+
+    private static TerminationConfig nested(TerminationConfig termination) {
+        return termination.getTerminationConfigList().get(0);
+    }
+}
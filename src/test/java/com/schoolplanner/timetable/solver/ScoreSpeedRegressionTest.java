@@ -0,0 +1,147 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.localsearch.LocalSearchPhaseConfig;
+import ai.timefold.solver.core.config.phase.PhaseConfig;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import ai.timefold.solver.core.impl.solver.DefaultSolver;
+import com.schoolplanner.timetable.domain.ClassUnitAssignment;
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.TimeTable;
+import com.schoolplanner.timetable.service.CsvDataLoader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Rezultāta aprēķina ātruma un labākā rezultāta regresijas pārbaude pret score-speed-baseline.properties.
+// Palaiž atsevišķi: mvn test -Pperformance
+// Bāzes līniju pārraksta: mvn test -Pperformance -DscoreSpeed.record=true
+// Pielaides: -DscoreSpeed.speedTolerance=0.25 (daļa, par cik drīkst samazināties ātrums),
+//            -DscoreSpeed.scoreTolerance=0.10 (daļa, par cik drīkst pasliktināties hard/soft rezultāts)
+@Tag("performance")
+class ScoreSpeedRegressionTest {
+
+    private static final String BASELINE_RESOURCE = "score-speed-baseline.properties";
+    private static final Path BASELINE_FILE = Path.of("src/test/resources", BASELINE_RESOURCE);
+
+    private static final long RANDOM_SEED = 0L;
+    private static final int LOCAL_SEARCH_STEPS = 200;
+
+    private final double speedTolerance = Double.parseDouble(System.getProperty("scoreSpeed.speedTolerance", "0.25"));
+    private final double scoreTolerance = Double.parseDouble(System.getProperty("scoreSpeed.scoreTolerance", "0.10"));
+    private final boolean record = Boolean.getBoolean("scoreSpeed.record");
+
+    private final Map<String, Supplier<TimeTable>> datasets = new LinkedHashMap<>();
+
+    {
+        datasets.put("lesson_list", () -> CsvDataLoader.generateFromAllCsvFiles(
+                "data/rooms.csv", "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list.csv", 1));
+        datasets.put("lesson_list_678", () -> CsvDataLoader.generateFromAllCsvFiles(
+                "data/rooms.csv", "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list_678.csv", 1));
+        datasets.put("lesson_list_9", () -> CsvDataLoader.generateFromAllCsvFiles(
+                "data/rooms.csv", "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list_9.csv", 3));
+    }
+
+    @Test
+    void scoreCalculationSpeedAndBestScoreDoNotRegress() throws IOException {
+        Properties baseline = loadBaseline();
+        Properties measured = new Properties();
+        List<String> failures = new ArrayList<>();
+
+        // Iesilda JIT, lai pirmā datu kopa netiktu mērīta ar interpretētu kodu
+        buildSolver().solve(assignRandomly(datasets.get("lesson_list_9").get()));
+
+        for (Map.Entry<String, Supplier<TimeTable>> dataset : datasets.entrySet()) {
+            String name = dataset.getKey();
+            DefaultSolver<TimeTable> solver = buildSolver();
+            TimeTable solution = solver.solve(assignRandomly(dataset.getValue().get()));
+            long speed = solver.getSolverScope().getScoreCalculationSpeed();
+            HardSoftScore bestScore = solution.getScore();
+            System.out.printf("%s: %d score calculations/s, best score %s%n", name, speed, bestScore);
+
+            measured.setProperty(name + ".scoreCalculationSpeed", Long.toString(speed));
+            measured.setProperty(name + ".bestScore", bestScore.toString());
+            if (record) continue;
+
+            String baselineSpeed = baseline.getProperty(name + ".scoreCalculationSpeed");
+            String baselineScore = baseline.getProperty(name + ".bestScore");
+            assertNotNull(baselineSpeed, "No baseline for " + name + ", record one with -DscoreSpeed.record=true");
+            assertNotNull(baselineScore, "No baseline for " + name + ", record one with -DscoreSpeed.record=true");
+
+            long minimumSpeed = (long) (Long.parseLong(baselineSpeed) * (1.0 - speedTolerance));
+            if (speed < minimumSpeed) {
+                failures.add(name + ": score calculation speed " + speed + "/s is below " + minimumSpeed
+                        + "/s (baseline " + baselineSpeed + "/s)");
+            }
+            HardSoftScore expected = HardSoftScore.parseScore(baselineScore);
+            // Mīksto rezultātu salīdzina tikai tad, ja cietais nav labāks par bāzes līniju
+            boolean softWorse = bestScore.hardScore() <= expected.hardScore() && isWorse(bestScore.softScore(), expected.softScore());
+            if (isWorse(bestScore.hardScore(), expected.hardScore()) || softWorse) {
+                failures.add(name + ": best score " + bestScore + " is worse than baseline " + expected
+                        + " by more than " + (int) (scoreTolerance * 100) + "%");
+            }
+        }
+
+        if (record) {
+            List<String> lines = new ArrayList<>();
+            lines.add("# Recorded by ScoreSpeedRegressionTest (seed " + RANDOM_SEED + ", " + LOCAL_SEARCH_STEPS + " local search steps)");
+            new TreeMap<>(measured).forEach((key, value) -> lines.add(key + "=" + value));
+            Files.write(BASELINE_FILE, lines);
+            return;
+        }
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    private boolean isWorse(int actual, int expected) {
+        return actual < expected - scoreTolerance * Math.max(1, Math.abs(expected));
+    }
+
+    // Tā pati konfigurācija kā produkcijā, bet ar fiksētu sēklu un fiksētu lokālās meklēšanas soļu skaitu
+    private static DefaultSolver<TimeTable> buildSolver() {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withEnvironmentMode(EnvironmentMode.REPRODUCIBLE)
+                .withRandomSeed(RANDOM_SEED);
+        solverConfig.setTerminationConfig(null);
+        for (PhaseConfig<?> phaseConfig : solverConfig.getPhaseConfigList()) {
+            if (phaseConfig instanceof LocalSearchPhaseConfig) {
+                phaseConfig.setTerminationConfig(new TerminationConfig().withStepCountLimit(LOCAL_SEARCH_STEPS));
+            }
+        }
+        return (DefaultSolver<TimeTable>) SolverFactory.<TimeTable>create(solverConfig).buildSolver();
+    }
+
+    // Konstrukcijas heiristika lielākajai datu kopai aizņem minūtes, tāpēc sākam no fiksēta nejauša saraksta
+    private static TimeTable assignRandomly(TimeTable timeTable) {
+        Random random = new Random(RANDOM_SEED);
+        for (ClassUnitAssignment assignment : timeTable.getClassUnitAssignments()) {
+            assignment.assignTeacher(assignment.getTeacherRange().get(random.nextInt(assignment.getTeacherRange().size())));
+        }
+        for (Lesson lesson : timeTable.getLessons()) {
+            lesson.setTimeSlot(lesson.getTimeSlotRange().get(random.nextInt(lesson.getTimeSlotRange().size())));
+            lesson.setRoom(lesson.getRoomRange().get(random.nextInt(lesson.getRoomRange().size())));
+        }
+        return timeTable;
+    }
+
+    private static Properties loadBaseline() throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = ScoreSpeedRegressionTest.class.getClassLoader().getResourceAsStream(BASELINE_RESOURCE)) {
+            if (in != null) {
+                baseline.load(in);
+            }
+        }
+        return baseline;
+    }
+}
@@ -1,6 +1,7 @@
 package com.schoolplanner.timetable.solver;
 
 import com.schoolplanner.timetable.domain.*;
+import com.schoolplanner.timetable.service.ProblemIndexer;
 import ai.timefold.solver.test.api.score.stream.ConstraintVerifier;
 import org.junit.jupiter.api.Test;
 import java.time.LocalTime;
@@ -37,12 +38,23 @@ class TimeTableConstraintProviderTest {
     TimeSlot slot_Fri_1100 = new TimeSlot(11L, SchoolDay.FRIDAY, LocalTime.of(11, 0), LocalTime.of(11, 40));
     TimeSlot slot_Fri_1200 = new TimeSlot(11L, SchoolDay.FRIDAY, LocalTime.of(12, 0), LocalTime.of(12, 40));
 
+    {
+        ProblemIndexer.indexTimeSlots(List.of(slot_Mon_0900, slot_Mon_1000, slot_Mon_1100, slot_Mon_1200, slot_Mon_1300,
+                slot_Mon_1400, slot_Mon_1500, slot_Mon_1600, slot_Mon_1700, slot_Mon_1800,
+                slot_Tue_0900, slot_Tue_1000, slot_Wed_0900, slot_Wed_1000, slot_Thu_0900, slot_Thu_1000,
+                slot_Fri_0900, slot_Fri_1000, slot_Fri_1100, slot_Fri_1200));
+    }
+
 
     TeachingUnit math6 = new TeachingUnit(0L, Subject.MATH, 6, RoomType.NORMAL);
     TeachingUnit math7 = new TeachingUnit(1L, Subject.MATH, 7, RoomType.NORMAL);
     TeachingUnit chem7 = new TeachingUnit(2L, Subject.CHEMISTRY, 7, RoomType.NORMAL);
     TeachingUnit sport7 = new TeachingUnit(3L, Subject.SPORT, 7, RoomType.GYM);
-    TeachingUnit art7 = new TeachingUnit(3L, Subject.ART, 7, RoomType.NORMAL);
+    TeachingUnit art7 = new TeachingUnit(4L, Subject.ART, 7, RoomType.NORMAL);
+
+    {
+        ProblemIndexer.indexTeachingUnits(List.of(math6, math7, chem7, sport7, art7));
+    }
 
     SchoolClass class6A = new SchoolClass(1L, "6A", 6);
     SchoolClass class7A = new SchoolClass(2L, "7A", 7);
@@ -56,9 +68,17 @@ class TimeTableConstraintProviderTest {
     LunchGroup lunch1_6 = new LunchGroup("Grades 1–6 lunch", 1, 6, List.of(slot_Mon_1200));
     LunchGroup lunch7_12 = new LunchGroup("Grades 7–12 lunch", 7, 12, List.of(slot_Mon_1300));
 
+    {
+        class6A.setLunchGroup(lunch1_6);
+        class7A.setLunchGroup(lunch7_12);
+        class7B.setLunchGroup(lunch7_12);
+        class7C.setLunchGroup(lunch7_12);
+    }
+
     ConstraintVerifier<TimeTableConstraintProvider, TimeTable> constraintVerifier = ConstraintVerifier.build(
             new TimeTableConstraintProvider(),
             TimeTable.class,
+            ClassUnitAssignment.class,
             Lesson.class
     );
 
@@ -95,6 +115,22 @@ class TimeTableConstraintProviderTest {
                 .penalizesBy(0);
     }
 
+    // Stundas, kuru pārim vēl nav skolotāja, nav skolotāju konflikts
+    @Test
+    void teacherConflictIgnoresLessonsWithoutTeacher() {
+        Lesson firstLesson = new Lesson(101L, math7, class7A);
+        firstLesson.setTimeSlot(slot_Mon_0900);
+        firstLesson.setRoom(room101);
+
+        Lesson secondLesson = new Lesson(102L, math7, class7B);
+        secondLesson.setTimeSlot(slot_Mon_0900);
+        secondLesson.setRoom(room102);
+
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::teacherConflict)
+                .given(firstLesson, secondLesson)
+                .penalizesBy(0);
+    }
+
     @Test
     void roomConflict() {
         anna.setId("T1");
@@ -193,6 +229,32 @@ class TimeTableConstraintProviderTest {
 
     }
 
+    // Bloka otrais periods iekrīt pusdienās, bet dienas pēdējā laikā sākts bloks neietilpst dienā
+    @Test
+    void blockPeriodsInLunchAndAfterDayEnd() {
+        Lesson lunchBlock = new Lesson(101L, art7, class7A);
+        lunchBlock.setPeriods(2);
+        lunchBlock.setTimeSlot(slot_Mon_1200);
+        lunchBlock.setRoom(room101);
+
+        Lesson lastSlotBlock = new Lesson(102L, art7, class7B);
+        lastSlotBlock.setPeriods(2);
+        lastSlotBlock.setTimeSlot(slot_Tue_1000);
+        lastSlotBlock.setRoom(room101);
+
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::studentLunchBreak)
+                .given(lunch1_6, lunch7_12, lunchBlock)
+                .penalizesBy(1);
+
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::subjectMustBeConsecutive)
+                .given(lunchBlock)
+                .penalizesBy(0);
+
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::subjectMustBeConsecutive)
+                .given(lastSlotBlock)
+                .penalizesBy(1);
+    }
+
     @Test
     void studentGroupConflict() {
         anna.setId("T1");
@@ -240,6 +302,40 @@ class TimeTableConstraintProviderTest {
                 .penalizesBy(0);
     }
 
+    // Divu periodu bloks aizņem arī nākamo laiku; sods ir pārklāto periodu skaits
+    @Test
+    void studentGroupConflictCountsBlockPeriods() {
+        Lesson block = new Lesson(101L, art7, class7A);
+        block.setPeriods(2);
+        block.setTimeSlot(slot_Mon_0900);
+        block.setRoom(room101);
+
+        Lesson overlappingLesson = new Lesson(102L, math7, class7A);
+        overlappingLesson.setTimeSlot(slot_Mon_1000);
+        overlappingLesson.setRoom(room102);
+
+        Lesson nextLesson = new Lesson(103L, math7, class7A);
+        nextLesson.setTimeSlot(slot_Mon_1100);
+        nextLesson.setRoom(room102);
+
+        Lesson sameBlock = new Lesson(104L, art7, class7A);
+        sameBlock.setPeriods(2);
+        sameBlock.setTimeSlot(slot_Mon_0900);
+        sameBlock.setRoom(room103);
+
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::studentGroupConflict)
+                .given(block, overlappingLesson)
+                .penalizesBy(1);
+
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::studentGroupConflict)
+                .given(block, nextLesson)
+                .penalizesBy(0);
+
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::studentGroupConflict)
+                .given(block, sameBlock)
+                .penalizesBy(2);
+    }
+
     @Test
     void roomTypeMatch() {
         anna.setId("T1");
@@ -475,46 +571,6 @@ class TimeTableConstraintProviderTest {
 
     }
 
-    @Test
-    void maxOneTeacherPerSchoolClassPerUnit() {
-        anna.setId("T1");
-        anna.setFirstName("Anna");
-        anna.setLastName("Ozola");
-        anna.setQualifiedUnits(Set.of(math7, chem7));
-        anna.setWorkTimeSlots(new HashSet<>(List.of(slot_Mon_0900, slot_Mon_1000, slot_Tue_0900)));
-        anna.setHomeRoom(room101);
-
-        janis.setId("T2");
-        janis.setFirstName("Janis");
-        janis.setLastName("Ozols");
-        janis.setQualifiedUnits(Set.of(math7, chem7));
-        janis.setWorkTimeSlots(new HashSet<>(List.of(slot_Mon_0900, slot_Mon_1000)));
-        janis.setHomeRoom(room102);
-
-        Lesson firstLesson = new Lesson(101L, chem7, class7A);
-        firstLesson.setTimeSlot(slot_Mon_0900);
-        firstLesson.setRoom(chem1);
-        firstLesson.setTeacher(anna);
-
-        Lesson conflictingLesson = new Lesson(102L, chem7, class7A);
-        conflictingLesson.setTimeSlot(slot_Tue_0900);
-        conflictingLesson.setRoom(chem1);
-        conflictingLesson.setTeacher(janis);
-
-        Lesson nonConflictingLesson = new Lesson(103L, chem7, class7A);
-        nonConflictingLesson.setTimeSlot(slot_Tue_0900);
-        nonConflictingLesson.setRoom(chem1);
-        nonConflictingLesson.setTeacher(anna);
-
-        constraintVerifier.verifyThat(TimeTableConstraintProvider::maxOneTeacherPerSchoolClassPerUnit)
-                .given(firstLesson, conflictingLesson)
-                .penalizesBy(1);
-
-        constraintVerifier.verifyThat(TimeTableConstraintProvider::maxOneTeacherPerSchoolClassPerUnit)
-                .given(firstLesson, nonConflictingLesson)
-                .penalizesBy(0);
-    }
-
     @Test
     void schoolClassLessonRoomStability() {
         anna.setId("T1");
@@ -0,0 +1,133 @@
+package com.schoolplanner.timetable.solver;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolutionUpdatePolicy;
+import ai.timefold.solver.core.api.solver.Solver;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.score.director.ScoreDirectorFactoryConfig;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import com.schoolplanner.timetable.domain.ClassUnitAssignment;
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.TimeTable;
+import com.schoolplanner.timetable.service.CsvDataLoader;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Salīdzina inkrementālo kalkulatoru ar TimeTableConstraintProvider uz komplektā iekļautajām CSV datu kopām
+class TimeTableIncrementalScoreCalculatorTest {
+
+    List<Supplier<TimeTable>> datasets = List.of(
+            () -> CsvDataLoader.generateFromAllCsvFiles("data/rooms.csv", "data/teachers.csv", "data/lunch_groups.csv", "data/lesson_list.csv", 1),
+            () -> CsvDataLoader.generateFromAllCsvFiles("data/rooms.csv", "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list_678.csv", 1),
+            () -> CsvDataLoader.generateFromAllCsvFiles("data/rooms.csv", "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list_9.csv", 3)
+    );
+
+    @Test
+    void explanationMatchesConstraintStreams() {
+        SolutionManager<TimeTable, HardSoftScore> streams = SolutionManager.create(
+                SolverFactory.create(SolverConfig.createFromXmlResource("solverConfig.xml")));
+        SolutionManager<TimeTable, HardSoftScore> incremental = SolutionManager.create(
+                SolverFactory.create(incrementalSolverConfig()));
+
+        Random random = new Random(0);
+        for (Supplier<TimeTable> dataset : datasets) {
+            TimeTable timeTable = dataset.get();
+            for (int i = 0; i < 5; i++) {
+                assignRandomly(timeTable, random);
+                assertEquals(constraintScores(streams, timeTable), constraintScores(incremental, timeTable));
+            }
+        }
+    }
+
+    // FULL_ASSERT pēc katra gājiena pārrēķina rezultātu ar constraint streams un salīdzina
+    @Test
+    void fullAssertMatchesConstraintStreams() {
+        SolverConfig solverConfig = incrementalSolverConfig()
+                .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+                .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(5L));
+        solverConfig.getScoreDirectorFactoryConfig().setAssertionScoreDirectorFactory(
+                new ScoreDirectorFactoryConfig().withConstraintProviderClass(TimeTableConstraintProvider.class));
+        Solver<TimeTable> solver = SolverFactory.<TimeTable>create(solverConfig).buildSolver();
+
+        Random random = new Random(1);
+        for (Supplier<TimeTable> dataset : datasets) {
+            TimeTable timeTable = dataset.get();
+            assignRandomly(timeTable, random);
+            solver.solve(timeTable);
+        }
+    }
+
+    // Divu posmu risināšanas pirmais posms: mīkstie ierobežojumi izslēgti abos rezultāta aprēķinos
+    @Test
+    void hardOnlyWeightsMatchConstraintStreams() {
+        SolverConfig solverConfig = incrementalSolverConfig()
+                .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+                .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(5L));
+        solverConfig.getScoreDirectorFactoryConfig().setAssertionScoreDirectorFactory(
+                new ScoreDirectorFactoryConfig().withConstraintProviderClass(TimeTableConstraintProvider.class));
+        Solver<TimeTable> solver = SolverFactory.<TimeTable>create(solverConfig).buildSolver();
+
+        Random random = new Random(2);
+        TimeTable timeTable = datasets.get(1).get();
+        timeTable.setConstraintWeightOverrides(TimeTableConstraintProvider.hardOnlyWeights());
+        assignRandomly(timeTable, random);
+        TimeTable solution = solver.solve(timeTable);
+        assertEquals(0, solution.getScore().softScore());
+    }
+
+    // Stundas izņemšana un pievienošana risināšanas laikā (ProblemChange)
+    @Test
+    void entityRemovedAndAddedMatchConstraintStreams() {
+        SolutionManager<TimeTable, HardSoftScore> streams = SolutionManager.create(
+                SolverFactory.create(SolverConfig.createFromXmlResource("solverConfig.xml")));
+        TimeTable timeTable = datasets.get(0).get();
+        assignRandomly(timeTable, new Random(3));
+        TimeTableIncrementalScoreCalculator calculator = new TimeTableIncrementalScoreCalculator();
+        calculator.resetWorkingSolution(timeTable);
+        Lesson lesson = timeTable.getLessons().stream().filter(l -> l.getRoom() != null).findFirst().orElseThrow();
+
+        calculator.beforeEntityRemoved(lesson);
+        timeTable.getLessons().remove(lesson);
+        calculator.afterEntityRemoved(lesson);
+        assertEquals(streams.update(timeTable).withInitScore(0), calculator.calculateScore());
+
+        calculator.beforeEntityAdded(lesson);
+        timeTable.getLessons().add(lesson);
+        calculator.afterEntityAdded(lesson);
+        assertEquals(streams.update(timeTable).withInitScore(0), calculator.calculateScore());
+    }
+
+    private static SolverConfig incrementalSolverConfig() {
+        return SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withScoreDirectorFactory(ScoreEngineConfiguration.scoreDirectorFactoryConfig(ScoreEngineConfiguration.INCREMENTAL));
+    }
+
+    private static Map<String, String> constraintScores(SolutionManager<TimeTable, HardSoftScore> solutionManager, TimeTable timeTable) {
+        Map<String, String> scores = new TreeMap<>();
+        solutionManager.explain(timeTable, SolutionUpdatePolicy.UPDATE_SCORE_ONLY).getConstraintMatchTotalMap()
+                .forEach((constraintId, total) -> scores.put(constraintId, total.getScore().toString()));
+        return scores;
+    }
+
+    private static void assignRandomly(TimeTable timeTable, Random random) {
+        // Dažiem pāriem nav skolotāja, tad stundu ēnas skolotājs ir null
+        for (ClassUnitAssignment assignment : timeTable.getClassUnitAssignments()) {
+            assignment.assignTeacher(random.nextInt(20) == 0 ? null : timeTable.getTeachers().get(random.nextInt(timeTable.getTeachers().size())));
+        }
+        for (Lesson lesson : timeTable.getLessons()) {
+            lesson.setTimeSlot(timeTable.getTimeSlots().get(random.nextInt(timeTable.getTimeSlots().size())));
+            // Dažas stundas paliek bez telpas, lai pārbaudītu arī daļēji piešķirtas stundas
+            lesson.setRoom(random.nextInt(20) == 0 ? null : timeTable.getRooms().get(random.nextInt(timeTable.getRooms().size())));
+        }
+    }
+}
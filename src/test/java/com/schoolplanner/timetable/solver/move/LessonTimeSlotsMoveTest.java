@@ -0,0 +1,210 @@
+package com.schoolplanner.timetable.solver.move;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.impl.score.constraint.ConstraintMatchPolicy;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.SwapMove;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import ai.timefold.solver.core.impl.solver.DefaultSolverFactory;
+import com.schoolplanner.timetable.domain.ClassUnitAssignment;
+import com.schoolplanner.timetable.domain.Lesson;
+import com.schoolplanner.timetable.domain.Room;
+import com.schoolplanner.timetable.domain.TimeSlot;
+import com.schoolplanner.timetable.domain.TimeTable;
+import com.schoolplanner.timetable.service.CsvDataLoader;
+import com.schoolplanner.timetable.solver.LessonGroupCanonicalizer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Stundu laika gājieni uz saraksta bez skolotāju, telpu un klašu konfliktiem (konstrukcijas heiristikas rezultāts)
+class LessonTimeSlotsMoveTest {
+
+    static DefaultSolverFactory<TimeTable> solverFactory;
+    static TimeTable constructed;
+
+    @BeforeAll
+    static void construct() {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+        // Tikai skolotāju inicializācija un konstrukcijas heiristika
+        solverConfig.setPhaseConfigList(solverConfig.getPhaseConfigList().subList(0, 2));
+        solverFactory = (DefaultSolverFactory<TimeTable>) SolverFactory.<TimeTable>create(solverConfig);
+        constructed = solverFactory.buildSolver().solve(CsvDataLoader.generateFromAllCsvFiles("data/rooms.csv",
+                "data/teachers_limited.csv", "data/lunch_groups.csv", "data/lesson_list_9.csv", 3));
+        assertEquals(0, conflicts(constructed));
+    }
+
+    @Test
+    void kempeChainKeepsScheduleConflictFree() {
+        int doable = applyMoves(new KempeChainMoveIteratorFactory(), timeTable -> assertEquals(0, conflicts(timeTable)));
+        assertTrue(doable > 0);
+    }
+
+    @Test
+    void classTimeSlotSwapKeepsClassConflictFree() {
+        int doable = applyMoves(new ClassTimeSlotSwapMoveIteratorFactory(), timeTable -> assertEquals(0, classConflicts(timeTable)));
+        assertTrue(doable > 0);
+    }
+
+    @Test
+    void blockShiftKeepsClassConflictFree() {
+        int doable = applyMoves(new BlockShiftMoveIteratorFactory(), timeTable -> assertEquals(0, classConflicts(timeTable)));
+        assertTrue(doable > 0);
+    }
+
+    @Test
+    void nearbySwapPairsLessonsWithSharedClassOrTeacher() {
+        LessonNearbyDistanceMeter distanceMeter = new LessonNearbyDistanceMeter();
+        int doable = applyMoves(new NearbyLessonSwapMoveIteratorFactory(), timeTable -> {
+        }, lessons -> assertTrue(distanceMeter.getNearbyDistance(lessons.get(0), lessons.get(1)) < 3.0));
+        assertTrue(doable > 0);
+    }
+
+    // Vienas (klase, mācību vienība) pāra stundu apmaiņa nemaina rezultātu, tāpēc filtrs to izmet
+    @Test
+    void sameAssignmentSwapKeepsScoreAndIsFiltered() {
+        try (InnerScoreDirector<TimeTable, HardSoftScore> scoreDirector = solverFactory.<HardSoftScore>getScoreDirectorFactory()
+                .buildScoreDirector(false, ConstraintMatchPolicy.DISABLED)) {
+            scoreDirector.setWorkingSolution(scoreDirector.cloneSolution(constructed));
+            HardSoftScore score = scoreDirector.calculateScore();
+            SameAssignmentSwapFilter filter = new SameAssignmentSwapFilter();
+            long dropped = CountingMoveFilter.droppedCount(SameAssignmentSwapFilter.class);
+            int swaps = 0;
+            for (ClassUnitAssignment assignment : scoreDirector.getWorkingSolution().getClassUnitAssignments()) {
+                if (assignment.getLessons().size() < 2) continue;
+                SwapMove<TimeTable> move = new SwapMove<>(scoreDirector.getSolutionDescriptor().findEntityDescriptorOrFail(Lesson.class)
+                        .getGenuineVariableDescriptorList(), assignment.getLessons().get(0), assignment.getLessons().get(1));
+                assertFalse(filter.accept(scoreDirector, move));
+                move.doMoveOnly(scoreDirector);
+                assertEquals(score, scoreDirector.calculateScore());
+                swaps++;
+            }
+            assertTrue(swaps > 0);
+            assertEquals(dropped + swaps, CountingMoveFilter.droppedCount(SameAssignmentSwapFilter.class));
+        }
+    }
+
+    // Aizvietojamu stundu ar to pašu telpu laiku apmaiņa ir tas pats saraksts; ar citu telpu - cits saraksts
+    @Test
+    void interchangeableTimeSlotSwapIsDoableOnlyWithDifferentRooms() {
+        try (InnerScoreDirector<TimeTable, HardSoftScore> scoreDirector = solverFactory.<HardSoftScore>getScoreDirectorFactory()
+                .buildScoreDirector(false, ConstraintMatchPolicy.DISABLED)) {
+            scoreDirector.setWorkingSolution(scoreDirector.cloneSolution(constructed));
+            int sameRoom = 0;
+            for (ClassUnitAssignment assignment : scoreDirector.getWorkingSolution().getClassUnitAssignments()) {
+                if (assignment.getLessons().size() < 2) continue;
+                Lesson left = assignment.getLessons().get(0), right = assignment.getLessons().get(1);
+                LessonTimeSlotsMove move = new LessonTimeSlotsMove("test", List.of(left, right),
+                        List.of(right.getTimeSlot(), left.getTimeSlot()));
+                assertEquals(left.getRoom() != right.getRoom(), move.isMoveDoable(scoreDirector));
+                if (left.getRoom() == right.getRoom()) sameRoom++;
+            }
+            assertTrue(sameRoom > 0);
+        }
+    }
+
+    // Sajaucot aizvietojamo stundu laikus un telpas, kanoniskais pieraksts atjauno pieaugošus laikus ar to pašu rezultātu
+    @Test
+    void canonicalizerOrdersInterchangeableLessonsAndKeepsScore() {
+        try (InnerScoreDirector<TimeTable, HardSoftScore> scoreDirector = solverFactory.<HardSoftScore>getScoreDirectorFactory()
+                .buildScoreDirector(false, ConstraintMatchPolicy.DISABLED)) {
+            scoreDirector.setWorkingSolution(scoreDirector.cloneSolution(constructed));
+            HardSoftScore score = scoreDirector.calculateScore();
+            for (ClassUnitAssignment assignment : scoreDirector.getWorkingSolution().getClassUnitAssignments()) {
+                List<Lesson> lessons = assignment.getLessons();
+                TimeSlot firstTimeSlot = lessons.get(0).getTimeSlot();
+                Room firstRoom = lessons.get(0).getRoom();
+                for (int i = 0; i < lessons.size(); i++) {
+                    Lesson lesson = lessons.get(i);
+                    Lesson next = i + 1 < lessons.size() ? lessons.get(i + 1) : null;
+                    scoreDirector.beforeVariableChanged(lesson, "timeSlot");
+                    lesson.setTimeSlot(next == null ? firstTimeSlot : next.getTimeSlot());
+                    scoreDirector.afterVariableChanged(lesson, "timeSlot");
+                    scoreDirector.beforeVariableChanged(lesson, "room");
+                    lesson.setRoom(next == null ? firstRoom : next.getRoom());
+                    scoreDirector.afterVariableChanged(lesson, "room");
+                }
+            }
+            scoreDirector.triggerVariableListeners();
+            assertEquals(score, scoreDirector.calculateScore());
+
+            new LessonGroupCanonicalizer().changeWorkingSolution(scoreDirector);
+            assertEquals(score, scoreDirector.calculateScore());
+            for (ClassUnitAssignment assignment : scoreDirector.getWorkingSolution().getClassUnitAssignments()) {
+                for (int i = 1; i < assignment.getLessons().size(); i++) {
+                    assertTrue(assignment.getLessons().get(i - 1).getTimeSlot().getOrdinal()
+                            < assignment.getLessons().get(i).getTimeSlot().getOrdinal());
+                }
+            }
+        }
+    }
+
+    // Katru izpildāmo gājienu izpilda, pārbauda un atsauc; atgriež izpildāmo gājienu skaitu
+    private static int applyMoves(LessonGridMoveIteratorFactory factory, Consumer<TimeTable> check) {
+        return applyMoves(factory, check, lessons -> {
+        });
+    }
+
+    private static int applyMoves(LessonGridMoveIteratorFactory factory, Consumer<TimeTable> check, Consumer<List<Lesson>> checkLessons) {
+        try (InnerScoreDirector<TimeTable, HardSoftScore> scoreDirector = solverFactory.<HardSoftScore>getScoreDirectorFactory()
+                .buildScoreDirector(false, ConstraintMatchPolicy.DISABLED)) {
+            scoreDirector.setWorkingSolution(scoreDirector.cloneSolution(constructed));
+            Random random = new Random(0);
+            int doable = 0;
+            for (int i = 0; i < 500; i++) {
+                LessonTimeSlotsMove move = factory.createRandomMoveIterator(scoreDirector, random).next();
+                if (!move.isMoveDoable(scoreDirector)) continue;
+                doable++;
+                List<Lesson> lessons = move.getPlanningEntities();
+                checkLessons.accept(lessons);
+                List<TimeSlot> before = new ArrayList<>();
+                for (Lesson lesson : lessons) {
+                    before.add(lesson.getTimeSlot());
+                    assertTrue(lesson.getTimeSlotRange().contains(lesson.getTimeSlot()));
+                }
+                move.doMoveOnly(scoreDirector);
+                for (Lesson lesson : lessons) {
+                    assertTrue(lesson.getTimeSlotRange().contains(lesson.getTimeSlot()));
+                }
+                check.accept(scoreDirector.getWorkingSolution());
+                for (int j = 0; j < lessons.size(); j++) {
+                    lessons.get(j).setTimeSlot(before.get(j));
+                }
+            }
+            return doable;
+        }
+    }
+
+    private static int conflicts(TimeTable timeTable) {
+        return countConflicts(timeTable, false);
+    }
+
+    private static int classConflicts(TimeTable timeTable) {
+        return countConflicts(timeTable, true);
+    }
+
+    private static int countConflicts(TimeTable timeTable, boolean classOnly) {
+        List<Lesson> lessons = timeTable.getLessons();
+        int conflicts = 0;
+        for (int i = 0; i < lessons.size(); i++) {
+            for (int j = i + 1; j < lessons.size(); j++) {
+                Lesson a = lessons.get(i), b = lessons.get(j);
+                if (a.getTimeSlot().getOrdinal() >= b.getEndOrdinal() || b.getTimeSlot().getOrdinal() >= a.getEndOrdinal()) continue;
+                if (a.getSchoolClass() == b.getSchoolClass()
+                        || (!classOnly && (a.getTeacher() == b.getTeacher() || a.getRoom() == b.getRoom()))) {
+                    conflicts++;
+                }
+            }
+        }
+        return conflicts;
+    }
+}